@@ -0,0 +1,67 @@
+package com.javarush.island.alimov;
+// Пакет, в котором находится класс ActiveCells.
+
+import java.util.ArrayList;
+// Импорт класса ArrayList для списков клеток этапа.
+
+import java.util.Comparator;
+// Импорт компаратора для порядка обхода клеток.
+
+import java.util.List;
+// Импорт интерфейса List.
+
+import java.util.Set;
+// Импорт интерфейса Set.
+
+import java.util.concurrent.ConcurrentHashMap;
+// Импорт потокобезопасной карты: клетки будят разные потоки.
+
+/**
+ * Класс {@code ActiveCells} хранит клетки с животными: клетка просыпается,
+ * когда в неё приходит или в ней рождается животное, и засыпает, когда
+ * животных не осталось. Этап животных обходит только эти клетки, поэтому
+ * на редко заселённом острове его стоимость пропорциональна активности,
+ * а не площади. Растения действуют только в известные заранее такты
+ * и планируются отдельно ({@link LifecycleEvents}).
+ * <p>
+ * Пример использования:
+ * <pre>{@code
+ * List<Cell> cells = activeCells.animalCells();
+ * }</pre>
+ */
+public class ActiveCells {
+    // Класс хранит множество активных клеток острова.
+
+    static final Comparator<Cell> MAP_ORDER =
+            Comparator.comparingInt(Cell::getX).thenComparingInt(Cell::getY);
+    // Порядок обхода — как у полного прохода по карте.
+
+    private final Set<Cell> animalCells = ConcurrentHashMap.newKeySet();
+    // Клетки, в которых есть (или недавно появились) животные.
+
+    /**
+     * Будит клетку для этапа животных.
+     *
+     * @param cell клетка, в которую пришло или в которой родилось животное
+     */
+    public void wakeAnimals(Cell cell) {
+        animalCells.add(cell);
+    }
+
+    /**
+     * Возвращает клетки с животными. Вызывается между этапами.
+     *
+     * @return клетки в порядке обхода карты
+     */
+    public List<Cell> animalCells() {
+        animalCells.removeIf(cell -> cell.getAnimals().isEmpty());
+        // Клетки без животных засыпают.
+        return ordered(animalCells);
+    }
+
+    private static List<Cell> ordered(Set<Cell> cells) {
+        List<Cell> list = new ArrayList<>(cells);
+        list.sort(MAP_ORDER);
+        return list;
+    }
+}
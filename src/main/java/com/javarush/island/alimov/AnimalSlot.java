@@ -0,0 +1,96 @@
+package com.javarush.island.alimov;
+// Пакет, в котором находится класс AnimalSlot.
+
+/**
+ * Класс {@code AnimalSlot} — представление особи {@link PopulationStore}:
+ * те же методы доступа, что у {@code Animal}, но без собственного состояния —
+ * чтение и запись идут в данные вида (в куче или вне её). Номер особи действителен
+ * до следующей пересортировки хранилища (начала следующего этапа животных).
+ * <p>
+ * Пример использования:
+ * <pre>{@code
+ * AnimalSlot wolf = population.slot(SpeciesRegistry.idOf(Wolf.class), 0);
+ * wolf.setCurrentWeight(wolf.getCurrentWeight() + 1);
+ * }</pre>
+ */
+public final class AnimalSlot {
+    // Класс даёт доступ к особи хранилища.
+
+    private final PopulationStore store;
+    // Хранилище особи.
+
+    private final PopulationStore.Species species;
+    // Вид особи.
+
+    private final int index;
+    // Номер особи в массивах вида.
+
+    AnimalSlot(PopulationStore store, PopulationStore.Species species, int index) {
+        this.store = store;
+        this.species = species;
+        this.index = index;
+    }
+
+    public String getName() {
+        return species.name;
+    }
+
+    public String getIcon() {
+        return species.icon;
+    }
+
+    public int getSpeciesId() {
+        return species.id;
+    }
+
+    public double getCurrentWeight() {
+        return species.data.weight(index);
+    }
+
+    public void setCurrentWeight(double currentWeight) {
+        species.data.weight(index, currentWeight);
+    }
+
+    public int getMaxPerCell() {
+        return species.maxPerCell;
+    }
+
+    public int getSpeed() {
+        return species.speed;
+    }
+
+    public double getFoodForFullSatiety() {
+        return species.foodForFullSatiety;
+    }
+
+    public Cell getCurrentCell() {
+        return store.cellAt(species.data.cell(index));
+    }
+
+    public boolean isAlive() {
+        return species.data.alive(index);
+    }
+
+    /**
+     * Гибель особи (оживить особь нельзя: её ячейка освобождается при пересортировке).
+     *
+     * @param alive {@code false} — особь погибает
+     */
+    public void setAlive(boolean alive) {
+        if (!alive) {
+            species.data.kill(index);
+        }
+    }
+
+    public boolean isHungry() {
+        return species.data.hungry(index);
+    }
+
+    public int getBornTick() {
+        return species.data.bornTick(index);
+    }
+
+    public int getAge() {
+        return store.getIsland().getTick() - species.data.bornTick(index);
+    }
+}
@@ -7,22 +7,47 @@ import com.javarush.island.alimov.entity.animals.Animal;
 import com.javarush.island.alimov.entity.plants.Plant;
 // Импорт базового класса Plant.
 
+import java.util.ArrayList;
+// Импорт класса ArrayList для снимков и списков последовательного режима.
+
+import java.util.Collection;
+// Импорт интерфейса Collection для пакетных операций.
+
+import java.util.Comparator;
+// Импорт компаратора видов по имени класса.
+
 import java.util.List;
 // Импорт интерфейса List для работы со списками.
 
 import java.util.Map;
 // Импорт интерфейса Map для хранения пар ключ-значение.
 
-import java.util.concurrent.ConcurrentHashMap;
-// Импорт потокобезопасной реализации Map.
+import java.util.TreeMap;
+// Импорт упорядоченной карты последовательного режима.
+
+import java.util.concurrent.ConcurrentSkipListMap;
+// Импорт потокобезопасной упорядоченной реализации Map.
 
 import java.util.concurrent.CopyOnWriteArrayList;
 // Импорт потокобезопасного списка.
 
+import java.util.concurrent.atomic.AtomicIntegerArray;
+// Импорт массива атомарных счётчиков занятости.
+
+import java.util.random.RandomGenerator;
+// Импорт интерфейса генератора случайных чисел.
+
 /**
  * Класс {@code Cell} представляет клетку острова.
  * В клетке могут находиться животные и растения.
- * Класс обеспечивает потокобезопасное хранение и управление объектами.
+ * В параллельном режиме хранение потокобезопасное, в последовательном
+ * ({@link Configuration#USE_VIRTUAL_THREADS} = false) — обычные коллекции без синхронизации.
+ *
+ * <p>Занятость клетки по видам ведут атомарные счётчики: обитатели плюс места,
+ * занятые заранее ({@link #reserveAnimal(Animal)}, {@link #reservePlant(Plant)}).
+ * Переход и рождение сначала занимают место сравнением с обменом, затем добавляют
+ * обитателя, поэтому {@code maxPerCell} не превышается, даже если место занимают
+ * из разных потоков. Проверка места читает один счётчик и ничего не создаёт.
  *
  * <p>Основные возможности:
  * <ul>
@@ -50,11 +75,26 @@ public class Cell {
     private final int Y;
     // Координата Y клетки.
 
-    private final Map<Class<? extends Animal>, List<Animal>> animals = new ConcurrentHashMap<>();
-    // Потокобезопасная карта: класс животного → список животных в клетке.
+    private static final Comparator<Class<?>> BY_NAME = Comparator.comparing(Class::getName);
+    // Виды в клетке обходятся по имени класса — одинаково в каждом запуске и в каждом режиме.
 
-    private final Map<Class<? extends Plant>, List<Plant>> plants = new ConcurrentHashMap<>();
-    // Потокобезопасная карта: класс растения → список растений в клетке.
+    private final Map<Class<? extends Animal>, List<Animal>> animals = newMap();
+    // Карта: класс животного → список животных в клетке.
+
+    private final Map<Class<? extends Plant>, List<Plant>> plants = newMap();
+    // Карта: класс растения → список растений в клетке.
+
+    private static final int PAD = 16;
+    // Шаг счётчиков видов: 16 int — 64 байта, своя строка кэша у каждого вида.
+
+    private final AtomicIntegerArray occupancy = new AtomicIntegerArray(SpeciesRegistry.size() * PAD);
+    // Занятость по номеру вида (индекс id * PAD): обитатели и занятые заранее места.
+
+    private final RandomGenerator random;
+    // Поток случайных чисел клетки или null, если зерно не задано.
+
+    private final ActiveCells activeCells;
+    // Множество активных клеток острова или null, если обходятся все клетки.
 
     /**
      * Конструктор клетки.
@@ -63,9 +103,39 @@ public class Cell {
      * @param y координата Y
      */
     public Cell(int x, int y) {
+        this(x, y, null);
+    }
+
+    /**
+     * Конструктор клетки, которая будит себя в множестве активных клеток.
+     *
+     * @param x           координата X
+     * @param y           координата Y
+     * @param activeCells множество активных клеток или {@code null}
+     */
+    public Cell(int x, int y, ActiveCells activeCells) {
         // Конструктор клетки. Инициализирует координаты.
         this.X = x;
         this.Y = y;
+        this.activeCells = activeCells;
+        this.random = RandomSource.forCell(x, y);
+    }
+
+    private static <K extends Class<?>, V> Map<K, List<V>> newMap() {
+        // Последовательный режим — обычная карта без синхронизации, параллельный — потокобезопасная.
+        return Configuration.USE_VIRTUAL_THREADS ? new ConcurrentSkipListMap<>(BY_NAME) : new TreeMap<>(BY_NAME);
+    }
+
+    private static <V> List<V> newList(Class<?> type) {
+        // Последовательный режим — обычный список, параллельный — копируемый при записи.
+        return Configuration.USE_VIRTUAL_THREADS ? new CopyOnWriteArrayList<>() : new ArrayList<>();
+    }
+
+    /**
+     * @return поток случайных чисел клетки или {@code null}, если зерно не задано
+     */
+    public RandomGenerator getRandom() {
+        return random;
     }
 
     public int getX() {
@@ -86,8 +156,7 @@ public class Cell {
      */
     public boolean hasSpaceForPlant(Plant plant) {
         // Проверяет, есть ли место для растения данного вида в клетке.
-        List<Plant> list = plants.getOrDefault(plant.getClass(), new CopyOnWriteArrayList<>());
-        return list.size() < plant.getMaxPerCell();
+        return occupancy.get(plant.getSpeciesId() * PAD) < plant.getMaxPerCell();
     }
 
     /**
@@ -98,8 +167,51 @@ public class Cell {
      */
     public boolean hasSpaceForAnimal(Animal animal) {
         // Проверяет, есть ли место для животного данного вида в клетке.
-        List<Animal> list = animals.getOrDefault(animal.getClass(), new CopyOnWriteArrayList<>());
-        return list.size() < animal.getMaxPerCell();
+        return occupancy.get(animal.getSpeciesId() * PAD) < animal.getMaxPerCell();
+    }
+
+    /**
+     * Занимает место для животного данного вида, если оно есть.
+     * Занятое место заполняется {@link #addReservedAnimal(Animal)} или
+     * возвращается {@link #releaseAnimal(Animal)}.
+     *
+     * @param animal животное (образец вида)
+     * @return {@code true}, если место занято
+     */
+    public boolean reserveAnimal(Animal animal) {
+        return reserve(animal.getSpeciesId(), animal.getMaxPerCell());
+    }
+
+    /**
+     * Возвращает место, занятое {@link #reserveAnimal(Animal)}, но не заполненное.
+     *
+     * @param animal животное (образец вида)
+     */
+    public void releaseAnimal(Animal animal) {
+        occupancy.getAndDecrement(animal.getSpeciesId() * PAD);
+    }
+
+    /**
+     * Занимает место для растения данного вида, если оно есть.
+     *
+     * @param plant растение (образец вида)
+     * @return {@code true}, если место занято
+     */
+    public boolean reservePlant(Plant plant) {
+        return reserve(plant.getSpeciesId(), plant.getMaxPerCell());
+    }
+
+    private boolean reserve(int speciesId, int maxPerCell) {
+        // Сравнение с обменом: счётчик растёт, только пока он меньше предела.
+        int index = speciesId * PAD;
+        int taken = occupancy.get(index);
+        while (taken < maxPerCell) {
+            if (occupancy.weakCompareAndSetVolatile(index, taken, taken + 1)) {
+                return true;
+            }
+            taken = occupancy.get(index);
+        }
+        return false;
     }
 
     /**
@@ -113,7 +225,7 @@ public class Cell {
             // Если объект — животное:
             List<Animal> list = animals.get(o.getClass());
             if (list != null) {
-                for (Animal animal : new CopyOnWriteArrayList<>(list)) {
+                for (Animal animal : new ArrayList<>(list)) {
                     animal.run();
                     // Запускаем метод run() для каждого животного.
                 }
@@ -122,7 +234,7 @@ public class Cell {
             // Если объект — растение:
             List<Plant> list = plants.get(o.getClass());
             if (list != null) {
-                for (Plant plant : new CopyOnWriteArrayList<>(list)) {
+                for (Plant plant : new ArrayList<>(list)) {
                     plant.run();
                     // Запускаем метод run() для каждого растения.
                 }
@@ -136,7 +248,7 @@ public class Cell {
     public void runAllPlants() {
         // Запускает жизненный цикл всех растений в клетке.
         for (List<Plant> list : plants.values()) {
-            for (Plant plant : new CopyOnWriteArrayList<>(list)) {
+            for (Plant plant : new ArrayList<>(list)) {
                 plant.run();
             }
         }
@@ -148,7 +260,7 @@ public class Cell {
     public void runAllAnimals() {
         // Запускает жизненный цикл всех животных в клетке.
         for (List<Animal> list : animals.values()) {
-            for (Animal animal : new CopyOnWriteArrayList<>(list)) {
+            for (Animal animal : new ArrayList<>(list)) {
                 animal.run();
             }
         }
@@ -160,8 +272,18 @@ public class Cell {
      * @param plant растение
      */
     public void addPlant(Plant plant) {
-        // Добавляет растение в клетку.
-        plants.computeIfAbsent(plant.getClass(), k -> new CopyOnWriteArrayList<>()).add(plant);
+        // Добавляет растение в клетку без проверки места (заселение острова).
+        occupancy.getAndIncrement(plant.getSpeciesId() * PAD);
+        addReservedPlant(plant);
+    }
+
+    /**
+     * Добавляет растение на место, занятое {@link #reservePlant(Plant)}.
+     *
+     * @param plant растение
+     */
+    public void addReservedPlant(Plant plant) {
+        plants.computeIfAbsent(plant.getClass(), Cell::newList).add(plant);
     }
 
     /**
@@ -172,8 +294,9 @@ public class Cell {
     public void removePlant(Plant plant) {
         // Удаляет растение из клетки.
         List<Plant> list = plants.get(plant.getClass());
-        if (list != null) {
-            list.remove(plant);
+        if (list != null && list.remove(plant)) {
+            occupancy.getAndDecrement(plant.getSpeciesId() * PAD);
+            // Место освобождается, только если растение было в клетке.
             if (list.isEmpty()) {
                 plants.remove(plant.getClass());
                 // Если список пуст — удаляем ключ из карты.
@@ -187,8 +310,22 @@ public class Cell {
      * @param animal животное
      */
     public void addAnimal(Animal animal) {
-        // Добавляет животное в клетку.
-        animals.computeIfAbsent(animal.getClass(), k -> new CopyOnWriteArrayList<>()).add(animal);
+        // Добавляет животное в клетку без проверки места (заселение острова, возврат в свою клетку).
+        occupancy.getAndIncrement(animal.getSpeciesId() * PAD);
+        addReservedAnimal(animal);
+    }
+
+    /**
+     * Добавляет животное на место, занятое {@link #reserveAnimal(Animal)}.
+     *
+     * @param animal животное
+     */
+    public void addReservedAnimal(Animal animal) {
+        animals.computeIfAbsent(animal.getClass(), Cell::newList).add(animal);
+        if (activeCells != null) {
+            activeCells.wakeAnimals(this);
+            // Пришло животное — клетка участвует в этапе животных.
+        }
     }
 
     /**
@@ -199,8 +336,9 @@ public class Cell {
     public void removeAnimal(Animal animal) {
         // Удаляет животное из клетки.
         List<Animal> list = animals.get(animal.getClass());
-        if (list != null) {
-            list.remove(animal);
+        if (list != null && list.remove(animal)) {
+            occupancy.getAndDecrement(animal.getSpeciesId() * PAD);
+            // Место освобождается, только если животное было в клетке.
             if (list.isEmpty()) {
                 animals.remove(animal.getClass());
                 // Если список пуст — удаляем ключ из карты.
@@ -208,6 +346,102 @@ public class Cell {
         }
     }
 
+    /**
+     * Возвращает количество животных данного вида в клетке.
+     *
+     * @param type класс животного
+     * @return количество животных
+     */
+    public int countAnimals(Class<? extends Animal> type) {
+        // Возвращает количество животных данного вида в клетке.
+        List<Animal> list = animals.get(type);
+        return list == null ? 0 : list.size();
+    }
+
+    /**
+     * Возвращает количество растений данного вида в клетке.
+     *
+     * @param type класс растения
+     * @return количество растений
+     */
+    public int countPlants(Class<? extends Plant> type) {
+        // Возвращает количество растений данного вида в клетке.
+        List<Plant> list = plants.get(type);
+        return list == null ? 0 : list.size();
+    }
+
+    /**
+     * Добавляет группу животных одного вида одной операцией (одно копирование списка).
+     *
+     * @param type      класс животных
+     * @param newcomers добавляемые животные
+     */
+    public void addAnimals(Class<? extends Animal> type, Collection<Animal> newcomers) {
+        // Пакетное добавление животных одного вида.
+        if (!newcomers.isEmpty()) {
+            occupancy.getAndAdd(SpeciesRegistry.idOf(type) * PAD, newcomers.size());
+            animals.computeIfAbsent(type, Cell::newList).addAll(newcomers);
+            if (activeCells != null) {
+                activeCells.wakeAnimals(this);
+            }
+        }
+    }
+
+    /**
+     * Удаляет группу животных одного вида одной операцией (одно копирование списка).
+     *
+     * @param type    класс животных
+     * @param leaving удаляемые животные (множество — для быстрой проверки вхождения)
+     */
+    public void removeAnimals(Class<? extends Animal> type, Collection<Animal> leaving) {
+        // Пакетное удаление животных одного вида.
+        List<Animal> list = animals.get(type);
+        if (list != null && !leaving.isEmpty()) {
+            int before = list.size();
+            list.removeAll(leaving);
+            occupancy.getAndAdd(SpeciesRegistry.idOf(type) * PAD, list.size() - before);
+            // Освобождаются места только тех, кто был в клетке.
+            if (list.isEmpty()) {
+                animals.remove(type);
+                // Если список пуст — удаляем ключ из карты.
+            }
+        }
+    }
+
+    /**
+     * Добавляет группу растений одного вида одной операцией (одно копирование списка).
+     *
+     * @param type      класс растений
+     * @param newcomers добавляемые растения
+     */
+    public void addPlants(Class<? extends Plant> type, Collection<Plant> newcomers) {
+        // Пакетное добавление растений одного вида.
+        if (!newcomers.isEmpty()) {
+            occupancy.getAndAdd(SpeciesRegistry.idOf(type) * PAD, newcomers.size());
+            plants.computeIfAbsent(type, Cell::newList).addAll(newcomers);
+        }
+    }
+
+    /**
+     * Удаляет группу растений одного вида одной операцией (одно копирование списка).
+     *
+     * @param type    класс растений
+     * @param leaving удаляемые растения (множество — для быстрой проверки вхождения)
+     */
+    public void removePlants(Class<? extends Plant> type, Collection<Plant> leaving) {
+        // Пакетное удаление растений одного вида.
+        List<Plant> list = plants.get(type);
+        if (list != null && !leaving.isEmpty()) {
+            int before = list.size();
+            list.removeAll(leaving);
+            occupancy.getAndAdd(SpeciesRegistry.idOf(type) * PAD, list.size() - before);
+            if (list.isEmpty()) {
+                plants.remove(type);
+                // Если список пуст — удаляем ключ из карты.
+            }
+        }
+    }
+
     /**
      * @return карта животных в клетке
      */
@@ -0,0 +1,209 @@
+package com.javarush.island.alimov;
+// Пакет, в котором находится класс CellOwnership.
+
+import java.util.ArrayList;
+// Импорт класса ArrayList для хранения очередей и задач.
+
+import java.util.List;
+// Импорт интерфейса List.
+
+import java.util.Queue;
+// Импорт интерфейса очереди передачи изменений.
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+// Импорт неблокирующей очереди: в неё пишут несколько потоков, читает один владелец.
+
+import java.util.function.Consumer;
+// Действие, выполняемое над клеткой.
+
+/**
+ * Класс {@code CellOwnership} реализует модель «один писатель на клетку».
+ * Карта острова делится на полосы строк; в течение этапа такта каждой полосой
+ * владеет ровно один виртуальный поток, и только он изменяет клетки полосы
+ * и их обитателей.
+ *
+ * <p>Правила:
+ * <ul>
+ *     <li>изменение своей клетки выполняется сразу, без блокировок;</li>
+ *     <li>изменение чужой клетки (переход животного, рождение у соседа)
+ *     кладётся в очередь передачи (inbox) владельца этой клетки;</li>
+ *     <li>после точки объединения этапа каждый владелец разбирает свою очередь,
+ *     пока все очереди не опустеют.</li>
+ * </ul>
+ * Вне этапа (например, при начальном заселении) владельца нет,
+ * и все изменения выполняются сразу.
+ * <p>
+ * Пример использования:
+ * <pre>{@code
+ * CellOwnership ownership = new CellOwnership(island.getLocation(), 1);
+ * ownership.runStage(Cell::runAllAnimals);
+ * }</pre>
+ */
+public class CellOwnership {
+    // Класс распределяет клетки острова между владельцами и передаёт изменения между ними.
+
+    private static final int NO_OWNER = -1;
+    // Признак потока, который не владеет ни одной полосой.
+
+    private static final ThreadLocal<Integer> CURRENT_OWNER = ThreadLocal.withInitial(() -> NO_OWNER);
+    // Номер полосы, которой владеет текущий поток.
+
+    private final Cell[][] location;
+    // Карта острова.
+
+    private final int rowsPerOwner;
+    // Количество строк в полосе одного владельца.
+
+    private final List<Queue<Runnable>> inboxes = new ArrayList<>();
+    // Очереди передачи: номер владельца → изменения его клеток от других владельцев.
+
+    /**
+     * Конструктор модели владения.
+     *
+     * @param location     карта острова
+     * @param rowsPerOwner количество строк в полосе одного владельца
+     */
+    public CellOwnership(Cell[][] location, int rowsPerOwner) {
+        this.location = location;
+        this.rowsPerOwner = Math.max(1, rowsPerOwner);
+        int owners = (location.length + this.rowsPerOwner - 1) / this.rowsPerOwner;
+        for (int i = 0; i < owners; i++) {
+            inboxes.add(new ConcurrentLinkedQueue<>());
+            // Одна очередь на каждую полосу.
+        }
+    }
+
+    /**
+     * Возвращает номер владельца клетки.
+     *
+     * @param cell клетка
+     * @return номер полосы, в которую входит клетка
+     */
+    public int ownerOf(Cell cell) {
+        return cell.getX() / rowsPerOwner;
+        // Первый индекс карты — координата X, полосы нарезаются по нему.
+    }
+
+    /**
+     * Проверяет, может ли текущий поток изменять клетку напрямую.
+     *
+     * @param cell клетка
+     * @return {@code true}, если клетка принадлежит текущему потоку или этап не идёт
+     */
+    public boolean isOwned(Cell cell) {
+        int owner = CURRENT_OWNER.get();
+        return owner == NO_OWNER || owner == ownerOf(cell);
+    }
+
+    /**
+     * Выполняет изменение клетки силами её владельца:
+     * сразу, если клетка своя, иначе — через очередь передачи.
+     *
+     * @param cell   изменяемая клетка
+     * @param change изменение
+     */
+    public void apply(Cell cell, Runnable change) {
+        if (isOwned(cell)) {
+            change.run();
+            // Своя клетка — единственный писатель, блокировка не нужна.
+        } else {
+            inboxes.get(ownerOf(cell)).add(change);
+            // Чужая клетка — изменение выполнит её владелец после этапа.
+        }
+    }
+
+    /**
+     * Выполняет этап такта: каждая полоса обрабатывается своим владельцем,
+     * затем владельцы разбирают очереди передачи.
+     *
+     * @param action действие над клеткой
+     */
+    public void runStage(Consumer<Cell> action) {
+        List<Runnable> owners = new ArrayList<>();
+        for (int owner = 0; owner < inboxes.size(); owner++) {
+            int bandOwner = owner;
+            owners.add(() -> runAsOwner(bandOwner, () -> runBand(bandOwner, action)));
+            // Каждая полоса — отдельный виртуальный поток со своим владельцем.
+        }
+        VirtualThreadRunner.runTasks(owners);
+        // Точка объединения: все полосы обработаны.
+        drainInboxes();
+        // Применяем изменения, переданные между владельцами.
+    }
+
+    /**
+     * Выполняет этап такта только для переданных клеток: каждая клетка
+     * обрабатывается владельцем своей полосы, затем очереди передачи разбираются.
+     *
+     * @param cells  клетки этапа в порядке обхода карты
+     * @param action действие над клеткой
+     */
+    public void runStage(List<Cell> cells, Consumer<Cell> action) {
+        List<List<Cell>> bands = new ArrayList<>();
+        for (int owner = 0; owner < inboxes.size(); owner++) {
+            bands.add(new ArrayList<>());
+        }
+        for (Cell cell : cells) {
+            bands.get(ownerOf(cell)).add(cell);
+            // Порядок клеток внутри полосы сохраняется.
+        }
+        List<Runnable> owners = new ArrayList<>();
+        for (int owner = 0; owner < bands.size(); owner++) {
+            List<Cell> band = bands.get(owner);
+            if (!band.isEmpty()) {
+                int bandOwner = owner;
+                owners.add(() -> runAsOwner(bandOwner, () -> band.forEach(action)));
+                // Полоса без активных клеток не получает потока.
+            }
+        }
+        VirtualThreadRunner.runTasks(owners);
+        drainInboxes();
+    }
+
+    private void runBand(int owner, Consumer<Cell> action) {
+        // Обрабатывает все клетки полосы владельца.
+        int from = owner * rowsPerOwner;
+        int to = Math.min(from + rowsPerOwner, location.length);
+        for (int i = from; i < to; i++) {
+            for (int j = 0; j < location[i].length; j++) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                action.accept(location[i][j]);
+            }
+        }
+    }
+
+    private void drainInboxes() {
+        // Разбирает очереди раундами: изменение может вернуть животное в чужую клетку.
+        while (inboxes.stream().anyMatch(inbox -> !inbox.isEmpty())) {
+            List<Runnable> owners = new ArrayList<>();
+            for (int owner = 0; owner < inboxes.size(); owner++) {
+                Queue<Runnable> inbox = inboxes.get(owner);
+                if (!inbox.isEmpty()) {
+                    int inboxOwner = owner;
+                    owners.add(() -> runAsOwner(inboxOwner, () -> drain(inbox)));
+                }
+            }
+            VirtualThreadRunner.runTasks(owners);
+        }
+    }
+
+    private static void drain(Queue<Runnable> inbox) {
+        // Применяет изменения в порядке поступления.
+        Runnable change;
+        while ((change = inbox.poll()) != null) {
+            change.run();
+        }
+    }
+
+    private static void runAsOwner(int owner, Runnable body) {
+        // Выполняет код от имени владельца полосы.
+        CURRENT_OWNER.set(owner);
+        try {
+            body.run();
+        } finally {
+            CURRENT_OWNER.remove();
+        }
+    }
+}
@@ -7,7 +7,17 @@ public class Configuration {
     public static final int SIZE_ISLAND_FOR_Y = 20;
     public static final long TICK_SIMULATION = 1;
     public static final TimeUnit TIME_UNIT = TimeUnit.SECONDS;
-    public static final int MAX_THREADS = 4;
+    public static final boolean CATCH_UP_TICKS = true;
+    public static final boolean USE_VIRTUAL_THREADS = true;
+    public static final int ROWS_PER_VIRTUAL_THREAD = 1;
+    public static final boolean ADAPTIVE_THREADS = true;
+    public static final int MIN_CELLS_PER_THREAD = 64;
+    public static final boolean USE_INTENT_BUFFERS = true;
+    public static final boolean USE_ACTIVE_CELLS = true;
+    public static final boolean USE_TIMER_WHEEL = true;
+    public static final boolean USE_POPULATION_STORE = false;
+    public static final boolean POPULATION_OFF_HEAP = false;
+    public static final long SEED = 0;
     public static final int MAX_PLANTS_REPRODUCE_IN_1_TICK = 20000;
     public static final int MAX_ANIMALS_REPRODUCE_IN_1_TICK = 2;
     public static final double NEIGHBOR_CELL_REPRODUCE_CHANCE = 1.0;
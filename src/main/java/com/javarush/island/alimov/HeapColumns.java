@@ -0,0 +1,158 @@
+package com.javarush.island.alimov;
+// Пакет, в котором находится класс HeapColumns.
+
+import java.util.Arrays;
+// Импорт утилит для работы с массивами.
+
+/**
+ * Класс {@code HeapColumns} хранит особей вида массивами примитивов в куче,
+ * по массиву на поле (структура массивов): 18 байт на особь.
+ */
+final class HeapColumns extends PopulationColumns {
+    // Особи вида в массивах кучи.
+
+    private double[] weight = new double[0];
+    // Вес особи.
+
+    private int[] bornTick = new int[0];
+    // Такт рождения особи.
+
+    private int[] cell = new int[0];
+    // Номер клетки особи.
+
+    private boolean[] hungry = new boolean[0];
+    // Голодна ли особь.
+
+    private boolean[] alive = new boolean[0];
+    // Жива ли особь.
+
+    private double[] nextWeight = new double[0];
+    private int[] nextBornTick = new int[0];
+    private int[] nextCell = new int[0];
+    private boolean[] nextHungry = new boolean[0];
+    // Вторые массивы для пересортировки: меняются местами с основными.
+
+    HeapColumns(int cells) {
+        super(cells);
+    }
+
+    @Override
+    double weight(int i) {
+        return weight[i];
+    }
+
+    @Override
+    void weight(int i, double weight) {
+        this.weight[i] = weight;
+    }
+
+    @Override
+    int bornTick(int i) {
+        return bornTick[i];
+    }
+
+    @Override
+    int cell(int i) {
+        return cell[i];
+    }
+
+    @Override
+    void cell(int i, int cell) {
+        this.cell[i] = cell;
+    }
+
+    @Override
+    boolean hungry(int i) {
+        return hungry[i];
+    }
+
+    @Override
+    void hungry(int i, boolean hungry) {
+        this.hungry[i] = hungry;
+    }
+
+    @Override
+    boolean alive(int i) {
+        return alive[i];
+    }
+
+    @Override
+    void alive(int i, boolean alive) {
+        this.alive[i] = alive;
+    }
+
+    @Override
+    int capacity() {
+        return weight.length;
+    }
+
+    @Override
+    void grow(int capacity) {
+        weight = Arrays.copyOf(weight, capacity);
+        bornTick = Arrays.copyOf(bornTick, capacity);
+        cell = Arrays.copyOf(cell, capacity);
+        hungry = Arrays.copyOf(hungry, capacity);
+        alive = Arrays.copyOf(alive, capacity);
+    }
+
+    @Override
+    void write(int i, double weight, int bornTick, int cell) {
+        this.weight[i] = weight;
+        this.bornTick[i] = bornTick;
+        this.cell[i] = cell;
+        this.hungry[i] = false;
+        this.alive[i] = true;
+    }
+
+    @Override
+    void prepareScratch() {
+        if (nextWeight.length < weight.length) {
+            nextWeight = new double[weight.length];
+            nextBornTick = new int[weight.length];
+            nextCell = new int[weight.length];
+            nextHungry = new boolean[weight.length];
+        }
+    }
+
+    @Override
+    void copyToScratch(int from, int to) {
+        nextWeight[to] = weight[from];
+        nextBornTick[to] = bornTick[from];
+        nextCell[to] = cell[from];
+        nextHungry[to] = hungry[from];
+    }
+
+    @Override
+    void swapScratch(int size) {
+        double[] weights = weight;
+        weight = nextWeight;
+        nextWeight = weights;
+        int[] ticks = bornTick;
+        bornTick = nextBornTick;
+        nextBornTick = ticks;
+        int[] cells = cell;
+        cell = nextCell;
+        nextCell = cells;
+        boolean[] hungers = hungry;
+        hungry = nextHungry;
+        nextHungry = hungers;
+        Arrays.fill(alive, 0, size, true);
+        Arrays.fill(alive, size, alive.length, false);
+        // Признак жизни не копируется: после пересортировки живы все.
+    }
+
+    @Override
+    long bytes() {
+        return (long) weight.length * (Double.BYTES + Integer.BYTES * 2 + 2)
+                + (long) nextWeight.length * (Double.BYTES + Integer.BYTES * 2 + 1)
+                + (long) (start.length + count.length) * Integer.BYTES;
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        weight = nextWeight = new double[0];
+        bornTick = nextBornTick = cell = nextCell = new int[0];
+        hungry = nextHungry = alive = new boolean[0];
+    }
+}
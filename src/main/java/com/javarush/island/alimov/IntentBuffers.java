@@ -0,0 +1,332 @@
+package com.javarush.island.alimov;
+// Пакет, в котором находится класс IntentBuffers.
+
+import com.javarush.island.alimov.entity.animals.Animal;
+// Импорт базового класса Animal.
+
+import com.javarush.island.alimov.entity.plants.Plant;
+// Импорт базового класса Plant.
+
+import java.util.ArrayList;
+// Импорт класса ArrayList для буферов намерений.
+
+import java.util.Comparator;
+// Импорт компаратора для порядка намерений при заданном зерне.
+
+import java.util.HashMap;
+// Импорт класса HashMap для группировки по клеткам и видам.
+
+import java.util.HashSet;
+// Импорт класса HashSet для множеств удаляемых обитателей.
+
+import java.util.List;
+// Импорт интерфейса List.
+
+import java.util.Map;
+// Импорт интерфейса Map.
+
+import java.util.Queue;
+// Импорт интерфейса очереди зарегистрированных буферов.
+
+import java.util.Set;
+// Импорт интерфейса Set.
+
+import java.util.TreeMap;
+// Импорт упорядоченной карты клеток при заданном зерне.
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+// Импорт неблокирующей очереди: буферы регистрируют разные потоки.
+
+/**
+ * Класс {@code IntentBuffers} реализует двухфазное изменение клеток.
+ * <ol>
+ *     <li>Фаза решений: животные и растения только записывают намерения
+ *     (переход, рождение, смерть) в буфер своего потока. Списки клеток не меняются.</li>
+ *     <li>Фаза применения ({@link #commit}): намерения группируются по клеткам,
+ *     ограничение {@code maxPerCell} проверяется один раз на пакет,
+ *     затем каждая клетка изменяется одним удалением и одним добавлением на вид.</li>
+ * </ol>
+ * Так вместо копирования {@code CopyOnWriteArrayList} на каждое изменение
+ * выполняется не больше двух копий на вид в клетке за этап, а проверка места
+ * не зависит от порядка работы потоков.
+ * <p>
+ * Пример использования:
+ * <pre>{@code
+ * intents.move(wolf, source, destination); // фаза решений
+ * intents.commit(1); // после точки объединения этапа
+ * }</pre>
+ */
+public class IntentBuffers {
+    // Класс собирает намерения потоков и применяет их пакетами по клеткам.
+
+    private record Move(Animal animal, Cell source, Cell destination) {
+        // Намерение перейти в другую клетку.
+    }
+
+    private record AnimalBirth(Cell cell, Animal parent, int count) {
+        // Намерение родить count детёнышей в клетке.
+    }
+
+    private record PlantBirth(Cell cell, Plant parent, int count) {
+        // Намерение дать count ростков в клетке.
+    }
+
+    private record AnimalDeath(Cell cell, Animal animal) {
+        // Намерение удалить погибшее животное из клетки.
+    }
+
+    private record PlantDeath(Cell cell, Plant plant) {
+        // Намерение удалить погибшее растение из клетки.
+    }
+
+    private static final class Buffer {
+        // Буфер намерений одного потока; пишет в него только владелец потока.
+        private int epoch;
+        private final List<Move> moves = new ArrayList<>();
+        private final List<AnimalBirth> animalBirths = new ArrayList<>();
+        private final List<PlantBirth> plantBirths = new ArrayList<>();
+        private final List<AnimalDeath> animalDeaths = new ArrayList<>();
+        private final List<PlantDeath> plantDeaths = new ArrayList<>();
+
+        private void clear() {
+            moves.clear();
+            animalBirths.clear();
+            plantBirths.clear();
+            animalDeaths.clear();
+            plantDeaths.clear();
+        }
+    }
+
+    private final ThreadLocal<Buffer> buffers = ThreadLocal.withInitial(Buffer::new);
+    // Буфер текущего потока.
+
+    private final Queue<Buffer> registered = new ConcurrentLinkedQueue<>();
+    // Буферы, получившие намерения на текущем этапе.
+
+    private volatile int epoch = 1;
+    // Номер этапа; буфер со старым номером очищается и регистрируется заново.
+
+    private Buffer current() {
+        // Возвращает буфер текущего потока для текущего этапа.
+        Buffer buffer = buffers.get();
+        if (buffer.epoch != epoch) {
+            buffer.clear();
+            buffer.epoch = epoch;
+            registered.add(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Записывает намерение перейти в другую клетку.
+     *
+     * @param animal      животное
+     * @param source      исходная клетка
+     * @param destination клетка назначения
+     */
+    public void move(Animal animal, Cell source, Cell destination) {
+        current().moves.add(new Move(animal, source, destination));
+    }
+
+    /**
+     * Записывает намерение родить детёнышей.
+     *
+     * @param cell   клетка рождения
+     * @param parent родитель (образец вида)
+     * @param count  желаемое количество детёнышей
+     */
+    public void bornAnimals(Cell cell, Animal parent, int count) {
+        current().animalBirths.add(new AnimalBirth(cell, parent, count));
+    }
+
+    /**
+     * Записывает намерение дать ростки.
+     *
+     * @param cell   клетка рождения
+     * @param parent родительское растение (образец вида)
+     * @param count  желаемое количество ростков
+     */
+    public void bornPlants(Cell cell, Plant parent, int count) {
+        current().plantBirths.add(new PlantBirth(cell, parent, count));
+    }
+
+    /**
+     * Записывает намерение удалить погибшее животное.
+     *
+     * @param cell   клетка, где находится животное
+     * @param animal животное
+     */
+    public void removeAnimal(Cell cell, Animal animal) {
+        current().animalDeaths.add(new AnimalDeath(cell, animal));
+    }
+
+    /**
+     * Записывает намерение удалить погибшее растение.
+     *
+     * @param cell  клетка, где находится растение
+     * @param plant растение
+     */
+    public void removePlant(Cell cell, Plant plant) {
+        current().plantDeaths.add(new PlantDeath(cell, plant));
+    }
+
+    /**
+     * Применяет все намерения этапа. Вызывается после точки объединения,
+     * когда фаза решений во всех потоках завершена.
+     *
+     * @param rowsPerBand количество строк в полосе при параллельном применении
+     */
+    public void commit(int rowsPerBand) {
+        List<Buffer> buffers = new ArrayList<>(registered);
+        registered.clear();
+        epoch++;
+        // Следующий этап пишет в очищенные буферы.
+
+        Map<Cell, CellBatch> batches = Configuration.SEED == 0
+                ? new HashMap<>()
+                : new TreeMap<>(ActiveCells.MAP_ORDER);
+        // С зерном клетки разбираются в порядке карты: результат не зависит от порядка потоков.
+        for (Buffer buffer : buffers) {
+            for (AnimalDeath death : buffer.animalDeaths) {
+                batch(batches, death.cell()).leaveAnimal(death.animal());
+            }
+            for (PlantDeath death : buffer.plantDeaths) {
+                batch(batches, death.cell()).leavePlant(death.plant());
+            }
+            // Смерти первыми: они освобождают место в клетке.
+        }
+        List<Move> moves = new ArrayList<>();
+        List<AnimalBirth> animalBirths = new ArrayList<>();
+        List<PlantBirth> plantBirths = new ArrayList<>();
+        for (Buffer buffer : buffers) {
+            moves.addAll(buffer.moves);
+            animalBirths.addAll(buffer.animalBirths);
+            plantBirths.addAll(buffer.plantBirths);
+        }
+        if (Configuration.SEED != 0) {
+            moves.sort(Comparator.comparing(Move::source, ActiveCells.MAP_ORDER));
+            animalBirths.sort(Comparator.comparing(birth -> birth.parent().getCurrentCell(), ActiveCells.MAP_ORDER));
+            plantBirths.sort(Comparator.comparing(birth -> birth.parent().getCurrentCell(), ActiveCells.MAP_ORDER));
+            // Устойчивая сортировка по исходной клетке: намерения одной клетки записаны
+            // одним потоком по порядку, поэтому итоговый порядок одинаков в любом режиме.
+        }
+        for (Move move : moves) {
+            if (move.animal().isAlive()) {
+                batch(batches, move.destination()).moves.add(move);
+                // Погибшее за такт животное никуда не идёт.
+            }
+        }
+        for (AnimalBirth birth : animalBirths) {
+            batch(batches, birth.cell()).animalBirths.add(birth);
+        }
+        for (PlantBirth birth : plantBirths) {
+            batch(batches, birth.cell()).plantBirths.add(birth);
+        }
+
+        List<Move> accepted = new ArrayList<>();
+        for (Map.Entry<Cell, CellBatch> entry : batches.entrySet()) {
+            entry.getValue().resolve(entry.getKey(), accepted);
+            // Проверка места — один раз на клетку и вид.
+        }
+        for (Move move : accepted) {
+            batch(batches, move.source()).leaveAnimal(move.animal());
+            move.animal().setCurrentCell(move.destination());
+            // Принятый переход освобождает место в исходной клетке.
+        }
+
+        if (Configuration.USE_VIRTUAL_THREADS) {
+            applyByBands(batches, rowsPerBand);
+            // Клетки независимы: каждая меняется только своим пакетом.
+        } else {
+            batches.forEach((cell, batch) -> batch.apply(cell));
+        }
+    }
+
+    private static void applyByBands(Map<Cell, CellBatch> batches, int rowsPerBand) {
+        // Обходит только изменённые клетки, а не всю карту: цена применения — число изменений.
+        Map<Integer, List<Cell>> bands = new HashMap<>();
+        for (Cell cell : batches.keySet()) {
+            bands.computeIfAbsent(cell.getX() / rowsPerBand, band -> new ArrayList<>()).add(cell);
+        }
+        List<Runnable> tasks = new ArrayList<>();
+        for (List<Cell> cells : bands.values()) {
+            tasks.add(() -> cells.forEach(cell -> batches.get(cell).apply(cell)));
+        }
+        VirtualThreadRunner.runTasks(tasks);
+    }
+
+    private static CellBatch batch(Map<Cell, CellBatch> batches, Cell cell) {
+        return batches.computeIfAbsent(cell, k -> new CellBatch());
+    }
+
+    private static final class CellBatch {
+        // Пакет изменений одной клетки.
+        private final List<Move> moves = new ArrayList<>();
+        private final List<AnimalBirth> animalBirths = new ArrayList<>();
+        private final List<PlantBirth> plantBirths = new ArrayList<>();
+        private final Map<Class<? extends Animal>, Set<Animal>> leavingAnimals = new HashMap<>();
+        private final Map<Class<? extends Plant>, Set<Plant>> leavingPlants = new HashMap<>();
+        private final Map<Class<? extends Animal>, List<Animal>> arrivingAnimals = new HashMap<>();
+        private final Map<Class<? extends Plant>, List<Plant>> arrivingPlants = new HashMap<>();
+
+        private void leaveAnimal(Animal animal) {
+            leavingAnimals.computeIfAbsent(animal.getClass(), k -> new HashSet<>()).add(animal);
+        }
+
+        private void leavePlant(Plant plant) {
+            leavingPlants.computeIfAbsent(plant.getClass(), k -> new HashSet<>()).add(plant);
+        }
+
+        private void resolve(Cell cell, List<Move> accepted) {
+            // Распределяет свободные места: сначала пришедшим, затем новорождённым.
+            Map<Class<?>, Integer> free = new HashMap<>();
+            for (Move move : moves) {
+                Animal animal = move.animal();
+                int places = free.computeIfAbsent(animal.getClass(), type -> freeAnimalPlaces(cell, animal));
+                if (places > 0) {
+                    arrivingAnimals.computeIfAbsent(animal.getClass(), k -> new ArrayList<>()).add(animal);
+                    accepted.add(move);
+                    free.put(animal.getClass(), places - 1);
+                }
+                // Места нет — животное остаётся в исходной клетке.
+            }
+            for (AnimalBirth birth : animalBirths) {
+                Animal parent = birth.parent();
+                int places = free.computeIfAbsent(parent.getClass(), type -> freeAnimalPlaces(cell, parent));
+                int born = Math.min(places, birth.count());
+                for (int i = 0; i < born; i++) {
+                    arrivingAnimals.computeIfAbsent(parent.getClass(), k -> new ArrayList<>()).add(parent.newChild(cell));
+                }
+                free.put(parent.getClass(), places - born);
+            }
+            for (PlantBirth birth : plantBirths) {
+                Plant parent = birth.parent();
+                int places = free.computeIfAbsent(parent.getClass(), type -> freePlantPlaces(cell, parent));
+                int born = Math.min(places, birth.count());
+                for (int i = 0; i < born; i++) {
+                    arrivingPlants.computeIfAbsent(parent.getClass(), k -> new ArrayList<>()).add(parent.newChild(cell));
+                }
+                free.put(parent.getClass(), places - born);
+            }
+        }
+
+        private int freeAnimalPlaces(Cell cell, Animal animal) {
+            // Уходящие из клетки животные место не освобождают: их переход ещё не принят.
+            Set<Animal> dead = leavingAnimals.getOrDefault(animal.getClass(), Set.of());
+            return animal.getMaxPerCell() - (cell.countAnimals(animal.getClass()) - dead.size());
+        }
+
+        private int freePlantPlaces(Cell cell, Plant plant) {
+            Set<Plant> dead = leavingPlants.getOrDefault(plant.getClass(), Set.of());
+            return plant.getMaxPerCell() - (cell.countPlants(plant.getClass()) - dead.size());
+        }
+
+        private void apply(Cell cell) {
+            // Одно удаление и одно добавление на каждый вид.
+            leavingAnimals.forEach(cell::removeAnimals);
+            leavingPlants.forEach(cell::removePlants);
+            arrivingAnimals.forEach(cell::addAnimals);
+            arrivingPlants.forEach(cell::addPlants);
+        }
+    }
+}
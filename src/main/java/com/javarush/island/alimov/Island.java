@@ -16,8 +16,11 @@ import java.util.Arrays;
 import java.util.List;
 // Импорт интерфейса List.
 
-import java.util.concurrent.ThreadLocalRandom;
-// Импорт генератора случайных чисел для многопоточной среды.
+import java.util.Map;
+// Импорт интерфейса Map для растений, которым есть что делать в такте.
+
+import java.util.function.Consumer;
+// Действие, выполняемое над клеткой на этапе такта.
 
 import java.util.stream.Collectors;
 // Импорт утилиты для преобразования потоков в коллекции.
@@ -49,6 +52,27 @@ public class Island {
     private final Cell[][] location;
     // Двумерный массив клеток, описывающий карту острова.
 
+    private CellOwnership ownership;
+    // Распределение клеток между владельцами на время этапа такта.
+
+    private int rowsPerBand = Configuration.ROWS_PER_VIRTUAL_THREAD;
+    // Количество строк в полосе одного виртуального потока (меняется между тактами).
+
+    private final IntentBuffers intents = Configuration.USE_INTENT_BUFFERS ? new IntentBuffers() : null;
+    // Буферы намерений (двухфазный режим) или null, если изменения применяются сразу.
+
+    private final ActiveCells activeCells = Configuration.USE_ACTIVE_CELLS ? new ActiveCells() : null;
+    // Клетки, которым есть что делать в такте, или null, если обходится вся карта.
+
+    private final LifecycleEvents lifecycle = Configuration.USE_TIMER_WHEEL ? new LifecycleEvents() : null;
+    // Колесо событий жизни (размножение и смерть от старости) или null, если возраст проверяется каждый такт.
+
+    private final PopulationStore population;
+    // Животные массивами по видам или null, если животные — объекты в клетках.
+
+    private int tick;
+    // Номер текущего такта (0 — до первого такта).
+
     /**
      * Конструктор для создания острова.
      *
@@ -63,10 +87,14 @@ public class Island {
             // Цикл по координате X.
             for (int y = 0; y < sizeY; y++) {
                 // Цикл по координате Y.
-                location[x][y] = new Cell(x, y);
+                location[x][y] = new Cell(x, y, activeCells);
                 // Создаём новую клетку с координатами (x, y).
             }
         }
+        ownership = new CellOwnership(location, rowsPerBand);
+        // Полоса владельца совпадает с полосой виртуального потока.
+        population = Configuration.USE_POPULATION_STORE ? new PopulationStore(this, Configuration.POPULATION_OFF_HEAP) : null;
+        // Хранилище создаётся, когда карта уже есть.
     }
 
     /**
@@ -79,6 +107,78 @@ public class Island {
         return location;
     }
 
+    /**
+     * @return хранилище животных или {@code null}, если животные — объекты в клетках
+     */
+    public PopulationStore getPopulation() {
+        return population;
+    }
+
+    /**
+     * @return номер текущего такта
+     */
+    public int getTick() {
+        return tick;
+    }
+
+    /**
+     * Начинает следующий такт. Вызывается только между тактами.
+     */
+    public void nextTick() {
+        tick++;
+    }
+
+    /**
+     * Планирует события жизни нового растения. Вызывается из конструктора растения.
+     *
+     * @param plant новое растение
+     */
+    public void scheduleLifecycle(Plant plant) {
+        if (lifecycle != null) {
+            lifecycle.schedule(plant);
+        }
+    }
+
+    /**
+     * Планирует смерть нового животного от старости. Вызывается из конструктора животного.
+     *
+     * @param animal новое животное
+     */
+    public void scheduleLifecycle(Animal animal) {
+        if (lifecycle != null && population == null) {
+            // В хранилище возраст проверяется в ходе особи, объект животного не удерживается.
+            lifecycle.schedule(animal);
+        }
+    }
+
+    /**
+     * @return количество строк в полосе одного виртуального потока
+     */
+    public int getRowsPerBand() {
+        return rowsPerBand;
+    }
+
+    /**
+     * @return количество полос (параллельных виртуальных потоков) этапа
+     */
+    public int getBandCount() {
+        return (location.length + rowsPerBand - 1) / rowsPerBand;
+    }
+
+    /**
+     * Задаёт количество полос. Вызывается только между тактами.
+     *
+     * @param bands желаемое количество полос
+     */
+    public void setBandCount(int bands) {
+        int rows = Math.max(1, (location.length + bands - 1) / Math.max(1, bands));
+        if (rows != rowsPerBand) {
+            rowsPerBand = rows;
+            ownership = new CellOwnership(location, rowsPerBand);
+            // Новые владельцы: очереди передачи пусты, этап не идёт.
+        }
+    }
+
     /**
      * Возвращает клетку по координатам.
      *
@@ -147,30 +247,205 @@ public class Island {
 
     /**
      * Запускает жизненные процессы всех растений на острове.
+     * <p>При {@link Configuration#USE_TIMER_WHEEL} запускаются только растения,
+     * у которых в этом такте событие ({@link LifecycleEvents}).</p>
+     * <p>При {@link Configuration#USE_VIRTUAL_THREADS} полосы строк обрабатываются
+     * параллельно в виртуальных потоках, каждая — своим владельцем ({@link CellOwnership}).</p>
      */
     public void runPlants() {
         // Запускает жизненные процессы всех растений на острове.
-        for (int y = 0; y < location.length; y++) {
-            for (int x = 0; x < location[y].length; x++) {
-                location[y][x].runAllPlants();
-                // Запускаем метод runAllPlants для каждой клетки.
-            }
+        if (lifecycle == null) {
+            runStage(null, Cell::runAllPlants);
+            // Без колеса событий каждое растение проверяет свой возраст в каждом такте.
+            return;
         }
+        Map<Cell, List<Plant>> due = lifecycle.duePlants(tick);
+        runStage(new ArrayList<>(due.keySet()), cell -> due.get(cell).forEach(Plant::run));
+        // Растения действуют только в первом и последнем такте жизни — только они и запускаются.
     }
 
     /**
      * Запускает жизненные процессы всех животных на острове.
+     * <p>При {@link Configuration#USE_TIMER_WHEEL} после этапа умирают животные,
+     * чей возраст достиг предельного.</p>
+     * <p>При {@link Configuration#USE_VIRTUAL_THREADS} полосы строк обрабатываются
+     * параллельно в виртуальных потоках, каждая — своим владельцем ({@link CellOwnership}).</p>
      */
     public void runAnimals() {
         // Запускает жизненные процессы всех животных на острове.
-        for (int y = 0; y < location.length; y++) {
-            for (int x = 0; x < location[y].length; x++) {
-                location[y][x].runAllAnimals();
-                // Запускаем метод runAllAnimals для каждой клетки.
+        if (population != null) {
+            population.runAnimals();
+            // Животные хранилища ходят одним потоком, клетка за клеткой.
+            if (intents != null) {
+                intents.commit(rowsPerBand);
+                // Съеденные растения удаляются пакетом.
+            }
+            return;
+        }
+        runStage(activeCells == null ? null : activeCells.animalCells(), Cell::runAllAnimals);
+        // Клетки без животных пропускаются.
+        if (lifecycle != null) {
+            List<Animal> old = lifecycle.dueAnimals(tick);
+            // Смерть от старости — после хода животного в его последнем такте.
+            if (!old.isEmpty()) {
+                old.forEach(Animal::dieOfAge);
+                // Вне этапа поток один: клетки изменяются сразу или через буферы намерений.
+                if (intents != null) {
+                    intents.commit(rowsPerBand);
+                }
             }
         }
     }
 
+    private void runStage(List<Cell> cells, Consumer<Cell> stage) {
+        // Один этап такта: фаза решений по клеткам (null — по всей карте) и применение намерений.
+        Consumer<Cell> action = Configuration.SEED == 0
+                ? stage
+                : cell -> RandomSource.run(cell.getRandom(), () -> stage.accept(cell));
+        // С зерном решения в клетке берут числа только из потока этой клетки.
+        if (Configuration.USE_VIRTUAL_THREADS) {
+            if (cells == null) {
+                ownership.runStage(action);
+                // Каждая полоса строк выполняется своим владельцем в виртуальном потоке.
+            } else {
+                ownership.runStage(cells, action);
+                // Активные клетки делятся между владельцами их полос.
+            }
+        } else if (cells == null) {
+            for (int x = 0; x < location.length; x++) {
+                for (int y = 0; y < location[x].length; y++) {
+                    action.accept(location[x][y]);
+                }
+            }
+        } else {
+            cells.forEach(action);
+        }
+        if (intents != null) {
+            intents.commit(rowsPerBand);
+            // Фаза применения: переходы, рождения и смерти пакетами по клеткам.
+        }
+    }
+
+    /**
+     * Выполняет изменение клетки силами её владельца.
+     * <p>Своя клетка изменяется сразу, чужая — после этапа, через очередь передачи.</p>
+     *
+     * @param cell   изменяемая клетка
+     * @param change изменение (добавление, удаление обитателей)
+     */
+    public void changeCell(Cell cell, Runnable change) {
+        // Все структурные изменения клеток проходят через владельца.
+        ownership.apply(cell, change);
+    }
+
+    /**
+     * Перемещает животное между клетками.
+     * <p>Место в клетке назначения занимается сразу, атомарно ({@link Cell#reserveAnimal(Animal)});
+     * нет места — животное остаётся. Затем животное покидает исходную клетку (ею владеет
+     * текущий поток), а прибытие на занятое место выполняет владелец клетки назначения.</p>
+     *
+     * @param animal      животное
+     * @param source      исходная клетка
+     * @param destination клетка назначения
+     */
+    public void moveAnimal(Animal animal, Cell source, Cell destination) {
+        // Перемещение животного через модель владения.
+        if (intents != null) {
+            intents.move(animal, source, destination);
+            return;
+            // Двухфазный режим: переход будет принят или отклонён при применении.
+        }
+        if (!destination.reserveAnimal(animal)) {
+            return;
+            // Места нет — животное остаётся там, где было.
+        }
+        source.removeAnimal(animal);
+        animal.setCurrentCell(destination);
+        if (ownership.isOwned(destination)) {
+            destination.addReservedAnimal(animal);
+            // Обе клетки свои — переходим сразу.
+            return;
+        }
+        // Животное в пути: до прибытия оно не числится ни в одной клетке, но место за ним.
+        ownership.apply(destination, () -> arrive(animal, destination));
+    }
+
+    private void arrive(Animal animal, Cell destination) {
+        // Прибытие животного на занятое место, выполняется владельцем клетки назначения.
+        if (!animal.isAlive()) {
+            destination.releaseAnimal(animal);
+            return;
+            // Животное погибло в пути (например, от голода в конце своего хода): место свободно.
+        }
+        destination.addReservedAnimal(animal);
+    }
+
+    /**
+     * Удаляет погибшее животное из клетки.
+     *
+     * @param cell   клетка, где находится животное
+     * @param animal животное
+     */
+    public void removeAnimal(Cell cell, Animal animal) {
+        if (intents != null) {
+            intents.removeAnimal(cell, animal);
+        } else {
+            changeCell(cell, () -> cell.removeAnimal(animal));
+        }
+    }
+
+    /**
+     * Удаляет погибшее растение из клетки.
+     *
+     * @param cell  клетка, где находится растение
+     * @param plant растение
+     */
+    public void removePlant(Cell cell, Plant plant) {
+        if (intents != null) {
+            intents.removePlant(cell, plant);
+        } else {
+            changeCell(cell, () -> cell.removePlant(plant));
+        }
+    }
+
+    /**
+     * Добавляет детёнышей в клетку, пока в ней есть место.
+     *
+     * @param cell   клетка рождения
+     * @param parent родитель (образец вида)
+     * @param count  желаемое количество детёнышей
+     */
+    public void bornAnimals(Cell cell, Animal parent, int count) {
+        if (intents != null) {
+            intents.bornAnimals(cell, parent, count);
+            return;
+        }
+        changeCell(cell, () -> {
+            for (int i = 0; i < count && cell.reserveAnimal(parent); i++) {
+                cell.addReservedAnimal(parent.newChild(cell));
+            }
+        });
+    }
+
+    /**
+     * Добавляет ростки в клетку, пока в ней есть место.
+     *
+     * @param cell   клетка рождения
+     * @param parent родительское растение (образец вида)
+     * @param count  желаемое количество ростков
+     */
+    public void bornPlants(Cell cell, Plant parent, int count) {
+        if (intents != null) {
+            intents.bornPlants(cell, parent, count);
+            return;
+        }
+        changeCell(cell, () -> {
+            for (int i = 0; i < count && cell.reservePlant(parent); i++) {
+                cell.addReservedPlant(parent.newChild(cell));
+            }
+        });
+    }
+
     /**
      * Возвращает список соседних клеток для клетки с координатами (x, y).
      *
@@ -211,9 +486,9 @@ public class Island {
      */
     public Cell getRandomCell() {
         // Возвращает случайную клетку острова.
-        int x = ThreadLocalRandom.current().nextInt(Configuration.SIZE_ISLAND_FOR_X);
+        int x = RandomSource.current().nextInt(Configuration.SIZE_ISLAND_FOR_X);
         // Случайное значение X.
-        int y = ThreadLocalRandom.current().nextInt(Configuration.SIZE_ISLAND_FOR_Y);
+        int y = RandomSource.current().nextInt(Configuration.SIZE_ISLAND_FOR_Y);
         // Случайное значение Y.
         return location[x][y];
         // Возвращаем клетку по случайным координатам.
@@ -0,0 +1,104 @@
+package com.javarush.island.alimov;
+// Пакет, в котором находится класс LifecycleEvents.
+
+import com.javarush.island.alimov.entity.animals.Animal;
+// Импорт базового класса Animal.
+
+import com.javarush.island.alimov.entity.plants.Plant;
+// Импорт базового класса Plant.
+
+import java.util.ArrayList;
+// Импорт класса ArrayList.
+
+import java.util.List;
+// Импорт интерфейса List.
+
+import java.util.Map;
+// Импорт интерфейса Map.
+
+import java.util.TreeMap;
+// Импорт упорядоченной карты: клетки обходятся в порядке карты.
+
+/**
+ * Класс {@code LifecycleEvents} планирует предсказуемые события жизни организмов
+ * на колесе таймеров ({@link TimerWheel}) вместо проверки возраста каждого
+ * организма в каждом такте.
+ * <ul>
+ *     <li>Растение: такт после рождения (единственный такт размножения)
+ *     и такт {@link Configuration#MAX_AGE_PLANTS} (смерть от старости).</li>
+ *     <li>Животное: смерть от старости в такте {@link Configuration#MAX_AGE_ANIMALS},
+ *     после того как животное в нём походило.</li>
+ * </ul>
+ * Организм, погибший раньше (съеден, умер от голода), остаётся в колесе
+ * и пропускается при срабатывании.
+ * <p>
+ * Пример использования:
+ * <pre>{@code
+ * Map<Cell, List<Plant>> due = lifecycle.duePlants(island.getTick());
+ * }</pre>
+ */
+public class LifecycleEvents {
+    // Класс хранит колёса событий растений и животных.
+
+    private final TimerWheel<Plant> plants = new TimerWheel<>(0);
+    // Такты, в которые растению есть что делать.
+
+    private final TimerWheel<Animal> animals = new TimerWheel<>(0);
+    // Такты смерти животных от старости.
+
+    /**
+     * Планирует события нового растения.
+     *
+     * @param plant новое растение
+     */
+    public void schedule(Plant plant) {
+        plants.schedule(plant.getBornTick() + 1, plant);
+        // Первый такт жизни — размножение.
+        if (Configuration.MAX_AGE_PLANTS > 1) {
+            plants.schedule(plant.getBornTick() + Configuration.MAX_AGE_PLANTS, plant);
+            // Последний такт жизни — смерть от старости.
+        }
+    }
+
+    /**
+     * Планирует смерть нового животного от старости.
+     *
+     * @param animal новое животное
+     */
+    public void schedule(Animal animal) {
+        animals.schedule(animal.getBornTick() + Configuration.MAX_AGE_ANIMALS, animal);
+    }
+
+    /**
+     * Возвращает живые растения, которым есть что делать в такте. Вызывается между этапами.
+     *
+     * @param tick номер такта
+     * @return клетка → её растения, клетки в порядке обхода карты
+     */
+    public Map<Cell, List<Plant>> duePlants(int tick) {
+        Map<Cell, List<Plant>> due = new TreeMap<>(ActiveCells.MAP_ORDER);
+        for (Plant plant : plants.advance(tick)) {
+            if (plant.isAlive()) {
+                due.computeIfAbsent(plant.getCurrentCell(), cell -> new ArrayList<>()).add(plant);
+            }
+        }
+        return due;
+    }
+
+    /**
+     * Возвращает живых животных, чей возраст в такте достиг предельного.
+     * Вызывается между этапами.
+     *
+     * @param tick номер такта
+     * @return животные, умирающие от старости
+     */
+    public List<Animal> dueAnimals(int tick) {
+        List<Animal> due = new ArrayList<>();
+        for (Animal animal : animals.advance(tick)) {
+            if (animal.isAlive()) {
+                due.add(animal);
+            }
+        }
+        return due;
+    }
+}
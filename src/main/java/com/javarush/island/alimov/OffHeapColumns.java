@@ -0,0 +1,177 @@
+package com.javarush.island.alimov;
+// Пакет, в котором находится класс OffHeapColumns.
+
+import java.nio.ByteBuffer;
+// Импорт буфера байтов: прямой буфер лежит вне кучи.
+
+import java.nio.ByteOrder;
+// Импорт порядка байтов платформы.
+
+/**
+ * Класс {@code OffHeapColumns} хранит особей вида вне кучи, в прямом буфере
+ * записями фиксированной ширины по 16 байт:
+ * <pre>
+ * 0  вес (double)
+ * 8  такт рождения (int)
+ * 12 номер клетки (биты 0–29), голод (бит 30), жизнь (бит 31)
+ * </pre>
+ * Сборщик мусора видит только сам буфер, а не особей; занятая память равна
+ * {@code 16 × ёмкость × 2} (второй буфер — для пересортировки). Расширение и пересортировка
+ * переносят записи целиком копированием байтов. Ёмкость буфера — не больше {@code Integer.MAX_VALUE}
+ * байт, поэтому вид вмещает до 2<sup>27</sup> − 1 особей ({@link #MAX_RECORDS}).
+ * {@link #close()} только отпускает ссылки на буферы: память вне кучи возвращается системе,
+ * когда сборщик мусора соберёт сами буферы (без FFM прямой буфер явно не освободить).
+ */
+final class OffHeapColumns extends PopulationColumns {
+    // Особи вида в записях вне кучи.
+
+    private static final int RECORD = 16;
+    // Ширина записи в байтах.
+
+    static final int MAX_RECORDS = Integer.MAX_VALUE / RECORD;
+    // Наибольшее количество записей в одном буфере: 2^27 − 1.
+
+    private static final int WEIGHT = 0;
+    private static final int BORN_TICK = 8;
+    private static final int CELL = 12;
+    // Смещения полей в записи.
+
+    private static final int CELL_MASK = (1 << 30) - 1;
+    private static final int HUNGRY = 1 << 30;
+    private static final int ALIVE = 1 << 31;
+    // Номер клетки и флаги в одном int.
+
+    private static final ByteBuffer EMPTY = allocate(0);
+    // Буфер закрытого или пустого вида.
+
+    private ByteBuffer records = EMPTY;
+    // Записи особей.
+
+    private ByteBuffer scratch = EMPTY;
+    // Второй буфер для пересортировки: меняется местами с основным.
+
+    OffHeapColumns(int cells) {
+        super(cells);
+        if (cells > CELL_MASK + 1) {
+            throw new IllegalArgumentException("too many cells for off-heap records: " + cells);
+        }
+    }
+
+    private static ByteBuffer allocate(int records) {
+        // Прямой буфер в порядке байтов платформы.
+        return ByteBuffer.allocateDirect(records * RECORD).order(ByteOrder.nativeOrder());
+        // records ≤ MAX_RECORDS: произведение помещается в int.
+    }
+
+    private int flags(int i) {
+        return records.getInt(i * RECORD + CELL);
+    }
+
+    private void flag(int i, int flag, boolean on) {
+        int value = flags(i);
+        records.putInt(i * RECORD + CELL, on ? value | flag : value & ~flag);
+    }
+
+    @Override
+    double weight(int i) {
+        return records.getDouble(i * RECORD + WEIGHT);
+    }
+
+    @Override
+    void weight(int i, double weight) {
+        records.putDouble(i * RECORD + WEIGHT, weight);
+    }
+
+    @Override
+    int bornTick(int i) {
+        return records.getInt(i * RECORD + BORN_TICK);
+    }
+
+    @Override
+    int cell(int i) {
+        return flags(i) & CELL_MASK;
+    }
+
+    @Override
+    void cell(int i, int cell) {
+        records.putInt(i * RECORD + CELL, flags(i) & ~CELL_MASK | cell);
+    }
+
+    @Override
+    boolean hungry(int i) {
+        return (flags(i) & HUNGRY) != 0;
+    }
+
+    @Override
+    void hungry(int i, boolean hungry) {
+        flag(i, HUNGRY, hungry);
+    }
+
+    @Override
+    boolean alive(int i) {
+        return (flags(i) & ALIVE) != 0;
+    }
+
+    @Override
+    void alive(int i, boolean alive) {
+        flag(i, ALIVE, alive);
+    }
+
+    @Override
+    int capacity() {
+        return records.capacity() / RECORD;
+    }
+
+    @Override
+    void grow(int capacity) {
+        capacity = Math.min(capacity, MAX_RECORDS);
+        if (capacity <= size) {
+            throw new IllegalStateException("off-heap records are full: " + size);
+        }
+        ByteBuffer next = allocate(capacity);
+        next.put(0, records, 0, size * RECORD);
+        // Занятые записи переносятся одним копированием.
+        records = next;
+    }
+
+    @Override
+    void write(int i, double weight, int bornTick, int cell) {
+        int offset = i * RECORD;
+        records.putDouble(offset + WEIGHT, weight);
+        records.putInt(offset + BORN_TICK, bornTick);
+        records.putInt(offset + CELL, cell | ALIVE);
+    }
+
+    @Override
+    void prepareScratch() {
+        if (scratch.capacity() < records.capacity()) {
+            scratch = allocate(capacity());
+        }
+    }
+
+    @Override
+    void copyToScratch(int from, int to) {
+        scratch.put(to * RECORD, records, from * RECORD, RECORD);
+        // Запись переносится целиком, вместе с флагами.
+    }
+
+    @Override
+    void swapScratch(int size) {
+        ByteBuffer previous = records;
+        records = scratch;
+        scratch = previous;
+    }
+
+    @Override
+    long bytes() {
+        return (long) records.capacity() + scratch.capacity()
+                + (long) (start.length + count.length) * Integer.BYTES;
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        records = EMPTY;
+        scratch = EMPTY;
+    }
+}
@@ -0,0 +1,164 @@
+package com.javarush.island.alimov;
+// Пакет, в котором находится класс ParallelismTuner.
+
+import java.util.Map;
+// Импорт интерфейса Map для замеров.
+
+import java.util.TreeMap;
+// Импорт упорядоченной карты: замеры выводятся по возрастанию числа полос.
+
+/**
+ * Класс {@code ParallelismTuner} подбирает число полос строк (параллельных
+ * виртуальных потоков) по времени такта, пока идёт симуляция.
+ *
+ * <p>Алгоритм (восхождение к вершине):
+ * <ul>
+ *     <li>среднее время такта замеряется за окно из {@link #WINDOW} тактов;</li>
+ *     <li>пробуется вдвое больше полос, затем вдвое меньше;</li>
+ *     <li>больше полос берётся, только если такт ускорился хотя бы на {@link #GAIN},
+ *     меньше — если замедление не превышает {@link #GAIN}: так число полос
+ *     останавливается на изломе кривой масштабирования;</li>
+ *     <li>на маленькой карте сразу выбирается одна полоса — координация дороже работы;</li>
+ *     <li>население меняется, поэтому поиск периодически повторяется.</li>
+ * </ul>
+ * <p>
+ * Пример использования:
+ * <pre>{@code
+ * int bands = tuner.onTick(tickNanos);
+ * island.setBandCount(bands);
+ * }</pre>
+ */
+public class ParallelismTuner {
+    // Класс подбирает степень параллелизма по замерам времени такта.
+
+    public static final int WINDOW = 3;
+    // Количество тактов в одном замере.
+
+    public static final double GAIN = 0.05;
+    // Минимальное ускорение, ради которого стоит удвоить число полос.
+
+    private static final int RETUNE_WINDOWS = 10;
+    // Через сколько замеров после остановки поиск повторяется.
+
+    private final int maxBands;
+    // Наибольшее осмысленное число полос.
+
+    private final Map<Integer, Double> measured = new TreeMap<>();
+    // Число полос → среднее время такта (нс) последнего замера.
+
+    private int home;
+    // Лучшее найденное число полос.
+
+    private int bands;
+    // Число полос, с которым выполняется следующий такт.
+
+    private boolean settled;
+    // Поиск остановлен.
+
+    private int settledWindows;
+    // Замеров после остановки поиска.
+
+    private long windowNanos;
+    // Суммарное время тактов текущего замера.
+
+    private int windowTicks;
+    // Тактов в текущем замере.
+
+    private boolean skipNext = true;
+    // Первый такт после смены полос (и самый первый такт) не замеряется: в нём прогрев.
+
+    /**
+     * Конструктор подборщика.
+     *
+     * @param initialBands начальное число полос
+     * @param rows         количество строк карты (больше полос не бывает)
+     * @param cellCount    количество клеток карты
+     */
+    public ParallelismTuner(int initialBands, int rows, int cellCount) {
+        this.maxBands = Math.max(1, Math.min(rows, cellCount / Configuration.MIN_CELLS_PER_THREAD));
+        this.home = Math.max(1, Math.min(initialBands, maxBands));
+        this.bands = home;
+        this.settled = maxBands == 1;
+        // Маленькая карта — одна полоса, подбирать нечего.
+    }
+
+    public int getBands() {
+        return bands;
+    }
+
+    /**
+     * Учитывает время завершённого такта.
+     *
+     * @param tickNanos время такта в наносекундах
+     * @return число полос для следующего такта
+     */
+    public int onTick(long tickNanos) {
+        if (maxBands == 1) {
+            return bands;
+        }
+        if (skipNext) {
+            skipNext = false;
+            return bands;
+        }
+        windowNanos += tickNanos;
+        if (++windowTicks < WINDOW) {
+            return bands;
+        }
+        measured.put(bands, (double) windowNanos / windowTicks);
+        windowNanos = 0;
+        windowTicks = 0;
+        if (settled) {
+            if (++settledWindows < RETUNE_WINDOWS) {
+                return bands;
+            }
+            settled = false;
+            settledWindows = 0;
+            measured.keySet().removeIf(count -> count != bands);
+            // Старые замеры устарели вместе с населением.
+        }
+        int previous = bands;
+        bands = next();
+        skipNext = bands != previous;
+        return bands;
+    }
+
+    private int next() {
+        // Выбирает следующее число полос для замера или останавливает поиск.
+        double here = measured.get(home);
+        int up = Math.min(home * 2, maxBands);
+        if (up != home) {
+            Double time = measured.get(up);
+            if (time == null) {
+                return up;
+            }
+            if (time < here * (1 - GAIN)) {
+                home = up;
+                return next();
+            }
+        }
+        int down = Math.max(home / 2, 1);
+        if (down != home) {
+            Double time = measured.get(down);
+            if (time == null) {
+                return down;
+            }
+            if (time <= here * (1 + GAIN)) {
+                home = down;
+                return next();
+            }
+        }
+        settled = true;
+        return home;
+    }
+
+    /**
+     * @return строка с выбранным числом полос и замерами
+     */
+    public String report() {
+        StringBuilder times = new StringBuilder();
+        measured.forEach((count, nanos) ->
+                times.append(times.isEmpty() ? "" : ", ").append(String.format("%d=%.1fмс", count, nanos / 1e6)));
+        return String.format("Полос: %d (макс. %d, %s) [%s]",
+                bands, maxBands, settled ? "подобрано" : "подбор", times);
+    }
+}
@@ -0,0 +1,150 @@
+package com.javarush.island.alimov;
+// Пакет, в котором находится класс PopulationColumns.
+
+import java.util.Arrays;
+// Импорт утилит для работы с массивами.
+
+/**
+ * Класс {@code PopulationColumns} — особи одного вида {@link PopulationStore}:
+ * вес, такт рождения, номер клетки, голод и признак жизни по номеру особи,
+ * и участки клеток после пересортировки. Где лежат сами данные, решают наследники:
+ * {@link HeapColumns} — массивы в куче, {@link OffHeapColumns} — записи вне кучи.
+ */
+abstract class PopulationColumns implements AutoCloseable {
+    // Базовый класс хранения особей вида.
+
+    final int[] start;
+    // Начало участка клетки после пересортировки; участок клетки c — [start[c], start[c + 1]).
+
+    final int[] count;
+    // Текущее количество живых особей в клетке.
+
+    int size;
+    // Количество занятых записей (живые и погибшие в этом такте).
+
+    PopulationColumns(int cells) {
+        this.start = new int[cells + 1];
+        this.count = new int[cells];
+    }
+
+    abstract double weight(int i);
+
+    abstract void weight(int i, double weight);
+
+    abstract int bornTick(int i);
+
+    abstract int cell(int i);
+
+    abstract void cell(int i, int cell);
+
+    abstract boolean hungry(int i);
+
+    abstract void hungry(int i, boolean hungry);
+
+    abstract boolean alive(int i);
+
+    abstract void alive(int i, boolean alive);
+
+    /**
+     * @return количество записей, помещающихся без расширения
+     */
+    abstract int capacity();
+
+    /**
+     * Расширяет хранилище, перенося занятые записи одним копированием.
+     *
+     * @param capacity новое количество записей
+     */
+    abstract void grow(int capacity);
+
+    /**
+     * Записывает живую сытую особь.
+     */
+    abstract void write(int i, double weight, int bornTick, int cell);
+
+    /**
+     * Готовит второе хранилище для пересортировки (не меньше основного).
+     */
+    abstract void prepareScratch();
+
+    /**
+     * Копирует запись {@code from} основного хранилища в запись {@code to} второго.
+     */
+    abstract void copyToScratch(int from, int to);
+
+    /**
+     * Меняет хранилища местами: второе становится основным с {@code size} живыми особями.
+     */
+    abstract void swapScratch(int size);
+
+    /**
+     * @return память данных вида в байтах
+     */
+    abstract long bytes();
+
+    /**
+     * Освобождает данные вида; дальше вид пуст.
+     */
+    @Override
+    public void close() {
+        size = 0;
+        Arrays.fill(count, 0);
+        Arrays.fill(start, 0);
+    }
+
+    final int append(double weight, int bornTick, int cell) {
+        // Добавляет особь в конец.
+        if (size == capacity()) {
+            grow(Math.max(16, size * 2));
+        }
+        int slot = size++;
+        write(slot, weight, bornTick, cell);
+        count[cell]++;
+        return slot;
+    }
+
+    final void kill(int i) {
+        // Гибель особи: запись освобождается при следующей пересортировке.
+        if (alive(i)) {
+            alive(i, false);
+            count[cell(i)]--;
+        }
+    }
+
+    final void rebin() {
+        // Пересортировка подсчётом: живые особи по клеткам, мёртвые отбрасываются.
+        int cells = count.length;
+        Arrays.fill(start, 0);
+        for (int i = 0; i < size; i++) {
+            if (alive(i)) {
+                start[cell(i) + 1]++;
+            }
+        }
+        for (int c = 0; c < cells; c++) {
+            start[c + 1] += start[c];
+        }
+        prepareScratch();
+        int[] cursor = count;
+        System.arraycopy(start, 0, cursor, 0, cells);
+        // Счётчики клеток служат курсорами записи, затем пересчитываются.
+        for (int i = 0; i < size; i++) {
+            if (alive(i)) {
+                copyToScratch(i, cursor[cell(i)]++);
+            }
+        }
+        size = start[cells];
+        swapScratch(size);
+        for (int c = 0; c < cells; c++) {
+            count[c] = start[c + 1] - start[c];
+        }
+    }
+
+    final int living() {
+        // Количество живых особей вида.
+        int living = 0;
+        for (int n : count) {
+            living += n;
+        }
+        return living;
+    }
+}
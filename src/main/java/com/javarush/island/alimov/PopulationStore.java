@@ -0,0 +1,383 @@
+package com.javarush.island.alimov;
+// Пакет, в котором находится класс PopulationStore.
+
+import com.javarush.island.alimov.entity.animals.Animal;
+// Импорт базового класса Animal: из него берутся параметры вида.
+
+import com.javarush.island.alimov.entity.animals.Diet;
+// Импорт скомпилированного рациона вида.
+
+import com.javarush.island.alimov.entity.plants.Plant;
+// Импорт базового класса Plant: растения остаются объектами в клетках.
+
+import java.util.List;
+// Импорт интерфейса List для растений клетки.
+
+import java.util.function.ObjIntConsumer;
+// Импорт действия над видом и его численностью.
+
+import java.util.random.RandomGenerator;
+// Импорт интерфейса генератора случайных чисел.
+
+/**
+ * Класс {@code PopulationStore} хранит животных не объектами, а примитивами
+ * по видам: вес, такт рождения, номер клетки, голод и признак жизни.
+ * Включается {@link Configuration#USE_POPULATION_STORE}; растения остаются объектами в клетках.
+ *
+ * <p>Особь занимает 18 байт в массивах кучи ({@link HeapColumns}) или 16 байт в записи
+ * вне кучи ({@link OffHeapColumns}, {@link Configuration#POPULATION_OFF_HEAP})
+ * вместо объекта {@link Animal} со строками, ссылками на клетку и остров и записью в списке клетки.
+ * В начале этапа животных каждый вид пересортировывается по клеткам подсчётом
+ * (counting sort): особи одной клетки лежат подряд, мёртвые выбрасываются,
+ * и этап идёт по клеткам, читая массивы последовательно.
+ *
+ * <p>Правила жизни те же, что в {@link Animal#run()}; этап выполняется одним потоком.
+ * Как и в двухфазном режиме ({@link IntentBuffers}), поиск пищи и размножение видят
+ * клетку такой, какой она была в начале этапа, а переходы и рождения сразу
+ * проверяют место по текущей численности клетки.
+ * <p>
+ * Пример использования:
+ * <pre>{@code
+ * PopulationStore population = island.getPopulation();
+ * population.add(new Wolf(cell, island)); // объект нужен только для параметров вида
+ * population.runAnimals();
+ * AnimalSlot wolf = population.slot(SpeciesRegistry.idOf(Wolf.class), 0);
+ * }</pre>
+ */
+public class PopulationStore implements AutoCloseable {
+    // Класс хранит животных острова массивами по видам.
+
+    static final class Species {
+        // Параметры и особи одного вида.
+
+        final int id;
+        // Номер вида в реестре видов.
+
+        final Class<?> type;
+        // Класс вида.
+
+        final String name;
+        // Имя вида.
+
+        final String icon;
+        // Иконка вида.
+
+        final double birthWeight;
+        // Вес новорождённого (вес только что созданного животного этого вида).
+
+        final double maxWeight;
+        // Максимальный вес.
+
+        final int maxPerCell;
+        // Максимальное количество особей в клетке.
+
+        final int speed;
+        // Скорость передвижения.
+
+        final double foodForFullSatiety;
+        // Количество пищи для насыщения.
+
+        final Diet diet;
+        // Скомпилированный рацион.
+
+        final PopulationColumns data;
+        // Особи вида: в куче или вне её.
+
+        Species(Animal sample, PopulationColumns data) {
+            this.id = sample.getSpeciesId();
+            this.type = sample.getClass();
+            this.name = sample.getName();
+            this.icon = sample.getIcon();
+            this.birthWeight = sample.getCurrentWeight();
+            this.maxWeight = sample.getMaxWeight();
+            this.maxPerCell = sample.getMaxPerCell();
+            this.speed = sample.getSpeed();
+            this.foodForFullSatiety = sample.getFoodForFullSatiety();
+            this.diet = sample.getDiet();
+            this.data = data;
+        }
+    }
+
+    private final Island island;
+    // Остров: клетки с растениями и удаление съеденных растений.
+
+    private final int sizeY;
+    // Высота острова: номер клетки x * sizeY + y.
+
+    private final int cells;
+    // Количество клеток.
+
+    private final boolean offHeap;
+    // Особи хранятся вне кучи ({@link OffHeapColumns}), иначе — массивами в куче.
+
+    private final Species[] species = new Species[SpeciesRegistry.size()];
+    // Виды по номеру; null — вида среди животных нет.
+
+    private boolean closed;
+    // Хранилище закрыто: данные освобождены.
+
+    /**
+     * Конструктор хранилища.
+     *
+     * @param island  остров
+     * @param offHeap {@code true} — особи хранятся вне кучи
+     */
+    public PopulationStore(Island island, boolean offHeap) {
+        this.island = island;
+        this.offHeap = offHeap;
+        Cell[][] location = island.getLocation();
+        this.sizeY = location[0].length;
+        this.cells = location.length * sizeY;
+    }
+
+    /**
+     * Переносит животное в хранилище. Объект больше не нужен: первый объект вида
+     * задаёт его параметры (в том числе вес новорождённого), поэтому добавлять
+     * следует только что созданных животных.
+     *
+     * @param animal животное
+     */
+    public void add(Animal animal) {
+        if (closed) {
+            throw new IllegalStateException("population store is closed");
+        }
+        Species s = species[animal.getSpeciesId()];
+        if (s == null) {
+            s = new Species(animal, offHeap ? new OffHeapColumns(cells) : new HeapColumns(cells));
+            species[s.id] = s;
+        }
+        s.data.append(animal.getCurrentWeight(), animal.getBornTick(), index(animal.getCurrentCell()));
+    }
+
+    /**
+     * Этап животных: пересортировка по клеткам, затем ход каждой особи,
+     * клетка за клеткой. Съеденные растения удаляются через остров
+     * (в двухфазном режиме — после этапа).
+     */
+    public void runAnimals() {
+        for (Species s : species) {
+            if (s != null) {
+                s.data.rebin();
+            }
+        }
+        Cell[][] location = island.getLocation();
+        for (int c = 0; c < cells; c++) {
+            int cellIndex = c;
+            Cell cell = location[c / sizeY][c % sizeY];
+            if (Configuration.SEED == 0) {
+                runCell(cellIndex, cell);
+            } else {
+                RandomSource.run(cell.getRandom(), () -> runCell(cellIndex, cell));
+                // С зерном решения в клетке берут числа только из потока этой клетки.
+            }
+        }
+    }
+
+    private void runCell(int c, Cell cell) {
+        // Ход всех особей, бывших в клетке в начале этапа; новорождённые ходят со следующего такта.
+        RandomGenerator random = RandomSource.current();
+        for (Species s : species) {
+            if (s == null) {
+                continue;
+            }
+            for (int i = s.data.start[c]; i < s.data.start[c + 1]; i++) {
+                live(s, i, c, cell, random);
+            }
+        }
+    }
+
+    private void live(Species s, int i, int c, Cell cell, RandomGenerator random) {
+        // Те же шаги, что в Animal.run().
+        PopulationColumns data = s.data;
+        data.hungry(i, true);
+        data.weight(i, data.weight(i) - s.maxWeight * 0.2);
+        if (!data.alive(i)) {
+            return;
+        }
+        eat(s, i, c, cell, random);
+        move(s, i, c, random);
+        reproduce(s, i, c, random);
+        if (data.weight(i) <= 0 || island.getTick() - data.bornTick(i) >= Configuration.MAX_AGE_ANIMALS) {
+            data.kill(i);
+        }
+    }
+
+    private void eat(Species s, int i, int c, Cell cell, RandomGenerator random) {
+        // Охота как в Animal.eat: виды добычи в порядке рациона, вид улова — одним числом.
+        Diet diet = s.diet;
+        int k = diet.hunt(position -> preyCount(diet, position, c, cell), random);
+        if (k < 0) {
+            return;
+            // Никого не поймали.
+        }
+        int n = preyCount(diet, k, c, cell);
+        if (diet.isAnimal(k)) {
+            PopulationColumns prey = species[diet.prey(k)].data;
+            int j = prey.start[c] + random.nextInt(n);
+            if (prey.alive(j) && prey.cell(j) == c) {
+                prey.weight(j, prey.weight(j) - s.foodForFullSatiety);
+                if (prey.weight(j) <= 0) {
+                    prey.kill(j);
+                }
+                feed(s, i);
+            }
+        } else {
+            Plant plant = plantsOf(diet, k, cell).get(random.nextInt(n));
+            if (plant.isAlive()) {
+                plant.setCurrentWeight(plant.getCurrentWeight() - s.foodForFullSatiety);
+                if (plant.getCurrentWeight() <= 0) {
+                    plant.setAlive(false);
+                    island.removePlant(cell, plant);
+                }
+                feed(s, i);
+            }
+        }
+    }
+
+    private int preyCount(Diet diet, int k, int c, Cell cell) {
+        // Количество особей добычи в клетке на начало этапа.
+        if (diet.isAnimal(k)) {
+            Species prey = species[diet.prey(k)];
+            return prey == null ? 0 : prey.data.start[c + 1] - prey.data.start[c];
+        }
+        return plantsOf(diet, k, cell).size();
+    }
+
+    private static List<Plant> plantsOf(Diet diet, int k, Cell cell) {
+        // Растения вида добычи в клетке.
+        return cell.getPlants().getOrDefault(SpeciesRegistry.type(diet.prey(k)), List.of());
+    }
+
+    private static void feed(Species s, int i) {
+        // Животное наелось.
+        s.data.weight(i, Math.min(s.data.weight(i) + s.foodForFullSatiety, s.maxWeight));
+        s.data.hungry(i, false);
+    }
+
+    private void move(Species s, int i, int c, RandomGenerator random) {
+        // Переход в случайную клетку в пределах скорости, если там есть место.
+        int x = Math.max(0, Math.min(cells / sizeY - 1, c / sizeY + random.nextInt(-s.speed, s.speed + 1)));
+        int y = Math.max(0, Math.min(sizeY - 1, c % sizeY + random.nextInt(-s.speed, s.speed + 1)));
+        int destination = x * sizeY + y;
+        int[] count = s.data.count;
+        if (destination != c && count[destination] < s.maxPerCell) {
+            count[c]--;
+            count[destination]++;
+            s.data.cell(i, destination);
+        }
+    }
+
+    private void reproduce(Species s, int i, int c, RandomGenerator random) {
+        // Размножение по правилам Animal.reproduce; детёныши рождаются в исходной клетке.
+        PopulationColumns data = s.data;
+        if (data.hungry(i) || data.start[c + 1] - data.start[c] < 2 || data.weight(i) < s.maxWeight * 0.5) {
+            return;
+        }
+        if (random.nextDouble() < Configuration.ANIMAL_CELL_SEX_CHANCE
+                && random.nextDouble() < Configuration.ANIMAL_CELL_REPRODUCE_CHANCE) {
+            int children = random.nextInt(Configuration.MAX_ANIMALS_REPRODUCE_IN_1_TICK) + 1;
+            for (int n = 0; n < children && data.count[c] < s.maxPerCell; n++) {
+                data.append(s.birthWeight, island.getTick(), c);
+            }
+        }
+    }
+
+    private int index(Cell cell) {
+        // Номер клетки.
+        return cell.getX() * sizeY + cell.getY();
+    }
+
+    Cell cellAt(int c) {
+        // Клетка по номеру.
+        return island.getLocation()[c / sizeY][c % sizeY];
+    }
+
+    Island getIsland() {
+        return island;
+    }
+
+    /**
+     * Представление особи. Номер особи действителен до следующей пересортировки
+     * (начала следующего этапа животных).
+     *
+     * @param speciesId номер вида
+     * @param index     номер особи, от 0 до {@link #size(int)}
+     * @return представление особи
+     */
+    public AnimalSlot slot(int speciesId, int index) {
+        Species s = species[speciesId];
+        if (s == null || index < 0 || index >= s.data.size) {
+            throw new IndexOutOfBoundsException("species " + speciesId + ", index " + index);
+        }
+        return new AnimalSlot(this, s, index);
+    }
+
+    /**
+     * @param speciesId номер вида
+     * @return количество занятых записей вида (живые и погибшие в текущем такте)
+     */
+    public int size(int speciesId) {
+        Species s = species[speciesId];
+        return s == null ? 0 : s.data.size;
+    }
+
+    /**
+     * Передаёт численность каждого вида хранилища.
+     *
+     * @param action действие: класс вида и количество живых особей
+     */
+    public void forEachCount(ObjIntConsumer<Class<?>> action) {
+        for (Species s : species) {
+            if (s != null) {
+                action.accept(s.type, s.data.living());
+            }
+        }
+    }
+
+    /**
+     * @return {@code true}, если в хранилище есть живые особи
+     */
+    public boolean hasAnimals() {
+        for (Species s : species) {
+            if (s != null && s.data.living() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return {@code true}, если особи хранятся вне кучи
+     */
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    /**
+     * @return память данных хранилища в байтах (без заголовков массивов)
+     */
+    public long memoryBytes() {
+        long bytes = 0;
+        for (Species s : species) {
+            if (s != null) {
+                bytes += s.data.bytes();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Освобождает данные всех видов. Вызывается, когда симуляция закончена:
+     * дальше хранилище пусто и не принимает животных. Память вне кучи
+     * возвращается системе при следующей сборке мусора ({@link OffHeapColumns}).
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Species s : species) {
+            if (s != null) {
+                s.data.close();
+            }
+        }
+    }
+}
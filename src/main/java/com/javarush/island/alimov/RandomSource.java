@@ -0,0 +1,88 @@
+package com.javarush.island.alimov;
+// Пакет, в котором находится класс RandomSource.
+
+import java.util.SplittableRandom;
+// Импорт быстрого генератора без синхронизации: поток клетки использует один владелец.
+
+import java.util.concurrent.ThreadLocalRandom;
+// Импорт генератора по умолчанию (без фиксированного зерна).
+
+import java.util.random.RandomGenerator;
+// Импорт общего интерфейса генераторов.
+
+/**
+ * Класс {@code RandomSource} выдаёт генератор случайных чисел для текущего кода.
+ * <ul>
+ *     <li>Без зерна ({@link Configuration#SEED} = 0) — {@link ThreadLocalRandom}, как раньше.</li>
+ *     <li>С зерном у каждой клетки свой поток чисел, выведенный из зерна и координат.
+ *     Решения в клетке берут числа только из него, поэтому результат не зависит
+ *     от того, какой поток и в каком порядке обработал клетки: последовательный
+ *     и параллельный режимы с одним зерном дают одинаковую симуляцию.</li>
+ * </ul>
+ * Код вне клетки (заселение острова, применение намерений) использует поток
+ * текущего потока выполнения, выведенный из того же зерна.
+ * <p>
+ * Пример использования:
+ * <pre>{@code
+ * RandomSource.run(cell.getRandom(), () -> cell.runAllAnimals());
+ * double chance = RandomSource.current().nextDouble();
+ * }</pre>
+ */
+public final class RandomSource {
+    // Класс выбирает генератор случайных чисел.
+
+    private static final long CELL_MIX = 0xBF58476D1CE4E5B9L;
+    // Нечётная константа для разнесения зёрен соседних клеток.
+
+    private static final ThreadLocal<RandomGenerator> STREAM =
+            ThreadLocal.withInitial(() -> new SplittableRandom(Configuration.SEED));
+    // Поток чисел, с которым сейчас работает поток выполнения.
+
+    private RandomSource() {
+    }
+
+    /**
+     * @return генератор для текущего кода
+     */
+    public static RandomGenerator current() {
+        if (Configuration.SEED == 0) {
+            return ThreadLocalRandom.current();
+        }
+        return STREAM.get();
+    }
+
+    /**
+     * Создаёт поток чисел клетки.
+     *
+     * @param x координата X
+     * @param y координата Y
+     * @return поток клетки или {@code null}, если зерно не задано
+     */
+    public static RandomGenerator forCell(int x, int y) {
+        if (Configuration.SEED == 0) {
+            return null;
+        }
+        long index = (long) x * Configuration.SIZE_ISLAND_FOR_Y + y + 1;
+        return new SplittableRandom(Configuration.SEED ^ (index * CELL_MIX));
+    }
+
+    /**
+     * Выполняет код с потоком чисел клетки и восстанавливает прежний поток.
+     *
+     * @param stream поток клетки ({@code null} — без подмены)
+     * @param body   код
+     */
+    public static void run(RandomGenerator stream, Runnable body) {
+        if (stream == null) {
+            body.run();
+            return;
+        }
+        RandomGenerator previous = STREAM.get();
+        STREAM.set(stream);
+        try {
+            body.run();
+        } finally {
+            STREAM.set(previous);
+        }
+    }
+}
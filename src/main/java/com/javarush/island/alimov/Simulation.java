@@ -23,6 +23,7 @@ import java.util.concurrent.ScheduledExecutorService;
  * Класс {@code Simulation} отвечает за запуск и управление симуляцией острова.
  * Он инициализирует животных и растения, запускает их жизненные процессы
  * в многопоточном режиме и выводит статистику на каждом шаге.
+ * Каждый шаг выполняется одним упорядоченным конвейером {@link TickPipeline}.
  *
  * <p>Основные возможности:
  * <ul>
@@ -42,9 +43,6 @@ import java.util.concurrent.ScheduledExecutorService;
 public class Simulation {
     // Главный класс, запускающий симуляцию острова.
 
-    static int counter = 0;
-    // Счётчик шагов симуляции.
-
     public static void main(String[] args) {
         // Точка входа в программу.
         Configuration config = new Configuration();
@@ -55,47 +53,18 @@ public class Simulation {
         // Инициализируем остров (заселяем животными и растениями).
         Statistics statistics = new Statistics(island);
         // Создаём объект для подсчёта статистики.
-        ScheduledExecutorService executor = Executors.newScheduledThreadPool(Configuration.MAX_THREADS);
-        // Создаём пул потоков для выполнения задач с фиксированным интервалом.
-
-        executor.scheduleAtFixedRate(() -> {
-            // Планируем задачу для роста растений.
-            island.runPlants();
-        }, 0, config.TICK_SIMULATION, Configuration.TIME_UNIT);
-        // Запускаем каждые TICK_SIMULATION единиц времени.
-
-        executor.scheduleAtFixedRate(() -> {
-            // Планируем задачу для активности животных.
-            island.runAnimals();
-        }, 0, config.TICK_SIMULATION, Configuration.TIME_UNIT);
-        // Запускаем каждые TICK_SIMULATION единиц времени.
-
-        executor.scheduleAtFixedRate(() -> {
-            // Планируем задачу для вывода статистики.
-            System.out.println("Step " + counter);
-            // Выводим номер шага симуляции.
-            statistics.printStatistics(Grass.class);
-            statistics.printStatistics(Boar.class);
-            statistics.printStatistics(Buffalo.class);
-            statistics.printStatistics(Caterpillar.class);
-            statistics.printStatistics(Deer.class);
-            statistics.printStatistics(Duck.class);
-            statistics.printStatistics(Goat.class);
-            statistics.printStatistics(Horse.class);
-            statistics.printStatistics(Mouse.class);
-            statistics.printStatistics(Rabbit.class);
-            statistics.printStatistics(Sheep.class);
-            statistics.printStatistics(Bear.class);
-            statistics.printStatistics(Boa.class);
-            statistics.printStatistics(Fox.class);
-            statistics.printStatistics(Wolf.class);
-            // Выводим статистику по всем видам животных и растений.
-            counter++;
-            // Увеличиваем счётчик шагов.
-            checkEndCondition(island, executor);
-            // Проверяем условие завершения симуляции.
-        }, 0, config.TICK_SIMULATION, Configuration.TIME_UNIT);
-        // Запускаем каждые TICK_SIMULATION единиц времени.
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        // Один поток планировщика: такты выполняются строго друг за другом.
+        TickPipeline pipeline = new TickPipeline(island, statistics, executor);
+        // Конвейер такта: растения → животные → перепись → проверка завершения.
+
+        if (Configuration.CATCH_UP_TICKS) {
+            executor.scheduleAtFixedRate(pipeline::tick, 0, config.TICK_SIMULATION, Configuration.TIME_UNIT);
+            // Такт каждые TICK_SIMULATION единиц времени; опоздавшие такты догоняют расписание подряд.
+        } else {
+            executor.scheduleWithFixedDelay(pipeline::tick, 0, config.TICK_SIMULATION, Configuration.TIME_UNIT);
+            // Пауза TICK_SIMULATION после каждого такта; при перегрузке расписание растягивается.
+        }
     }
 
     /**
@@ -145,8 +114,13 @@ public class Simulation {
                         .getConstructor(Cell.class, Island.class)
                         .newInstance(cell, island);
                 // Создаём новый объект животного через рефлексию.
-                cell.addAnimal(animal);
-                // Добавляем животное в клетку.
+                if (island.getPopulation() != null) {
+                    island.getPopulation().add(animal);
+                    // Переносим животное в хранилище массивов.
+                } else {
+                    cell.addAnimal(animal);
+                    // Добавляем животное в клетку.
+                }
             } catch (Exception e) {
                 // Обработка ошибок при создании.
                 System.out.println("Ошибка при создании животного: " + e);
@@ -185,28 +159,5 @@ public class Simulation {
             }
         }
     }
-
-    /**
-     * Проверяет условие завершения симуляции.
-     * <p>Если на острове не осталось живых животных и растений,
-     * симуляция завершается.</p>
-     *
-     * @param island   объект острова
-     * @param executor планировщик задач, который будет остановлен
-     */
-    public static void checkEndCondition(Island island, ScheduledExecutorService executor) {
-        // Метод для проверки завершения симуляции.
-        boolean hasAnimals = island.getAllAnimals().stream().anyMatch(Animal::isAlive);
-        // Проверяем, есть ли живые животные.
-        boolean hasPlants = island.getAllPlants().stream().anyMatch(Plant::isAlive);
-        // Проверяем, есть ли живые растения.
-        if (!hasAnimals && !hasPlants) {
-            // Если животных и растений не осталось:
-            System.out.println("Симуляция завершена: все животные погибли и растений не осталось.");
-            // Выводим сообщение о завершении.
-            executor.shutdown();
-            // Останавливаем выполнение всех задач.
-        }
-    }
 }
 
@@ -0,0 +1,83 @@
+package com.javarush.island.alimov;
+// Пакет, в котором находится класс SpeciesRegistry.
+
+import com.javarush.island.alimov.entity.animals.Animal;
+// Импорт базового класса Animal для разделения видов на животных и растения.
+
+import com.javarush.island.alimov.entity.animals.herbivors.*;
+// Импорт всех травоядных животных.
+
+import com.javarush.island.alimov.entity.animals.predators.*;
+// Импорт всех хищников.
+
+import com.javarush.island.alimov.entity.plants.*;
+// Импорт всех растений.
+
+import java.util.List;
+// Импорт интерфейса List для списка видов.
+
+/**
+ * Класс {@code SpeciesRegistry} присваивает каждому виду острова постоянный номер —
+ * его индекс в {@link #SPECIES}. По номеру вида хранятся скомпилированные рационы
+ * ({@code Diet}), поэтому горячий код не ищет виды в картах по классу.
+ * <p>
+ * Пример использования:
+ * <pre>{@code
+ * int wolf = SpeciesRegistry.idOf(Wolf.class);
+ * Class<?> type = SpeciesRegistry.type(wolf); // Wolf.class
+ * }</pre>
+ */
+public final class SpeciesRegistry {
+    // Класс хранит номера видов.
+
+    private static final List<Class<?>> SPECIES = List.of(
+            // Все виды: порядок статистики, затем виды, которых в ней нет.
+            Grass.class, Boar.class, Buffalo.class, Caterpillar.class, Deer.class,
+            Duck.class, Goat.class, Horse.class, Mouse.class, Rabbit.class,
+            Sheep.class, Bear.class, Boa.class, Fox.class, Wolf.class, Eagle.class
+    );
+
+    private static final ClassValue<Integer> IDS = new ClassValue<>() {
+        // Номер вида, вычисляется один раз на класс и дальше читается без поиска.
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return SPECIES.indexOf(type);
+        }
+    };
+
+    private SpeciesRegistry() {
+    }
+
+    /**
+     * @return количество видов
+     */
+    public static int size() {
+        return SPECIES.size();
+    }
+
+    /**
+     * Номер вида.
+     *
+     * @param type класс вида
+     * @return номер вида или {@code -1}, если вида нет на острове
+     */
+    public static int idOf(Class<?> type) {
+        return IDS.get(type);
+    }
+
+    /**
+     * @param id номер вида
+     * @return класс вида
+     */
+    public static Class<?> type(int id) {
+        return SPECIES.get(id);
+    }
+
+    /**
+     * @param id номер вида
+     * @return {@code true}, если вид — животное, иначе растение
+     */
+    public static boolean isAnimal(int id) {
+        return Animal.class.isAssignableFrom(SPECIES.get(id));
+    }
+}
@@ -13,12 +13,21 @@ import com.javarush.island.alimov.entity.animals.predators.*;
 import com.javarush.island.alimov.entity.plants.*;
 // Импорт всех растений.
 
+import java.util.LinkedHashMap;
+// Импорт упорядоченной карты для результата переписи.
+
 import java.util.List;
 // Импорт класса List для хранения коллекций объектов.
 
 import java.util.Map;
 // Импорт класса Map для отображения ключ-значение.
 
+import java.util.concurrent.ConcurrentHashMap;
+// Импорт потокобезопасной карты для параллельного подсчёта.
+
+import java.util.concurrent.atomic.LongAdder;
+// Импорт счётчика, рассчитанного на одновременные увеличения из разных потоков.
+
 /**
  * Класс {@code Statistics} отвечает за сбор и вывод статистики по объектам (животным и растениям)
  * на острове. Позволяет подсчитывать количество экземпляров конкретного класса и выводить
@@ -63,6 +72,13 @@ public class Statistics {
             Map.entry(Fox.class, "\uD83E\uDD8A")        // Лиса 🦊
     );
 
+    public static final List<Class<?>> SPECIES = List.of(
+            // Виды в порядке вывода статистики.
+            Grass.class, Boar.class, Buffalo.class, Caterpillar.class, Deer.class,
+            Duck.class, Goat.class, Horse.class, Mouse.class, Rabbit.class,
+            Sheep.class, Bear.class, Boa.class, Fox.class, Wolf.class
+    );
+
     /**
      * Конструктор для создания объекта {@code Statistics}.
      *
@@ -126,6 +142,55 @@ public class Statistics {
         // Возвращаем общее количество найденных объектов.
     }
 
+    /**
+     * Подсчитывает все виды за один проход по острову (перепись).
+     * <p>Вызывается, когда такт завершён и никто не изменяет клетки,
+     * поэтому результат — согласованный снимок конца такта.</p>
+     *
+     * @return карта: класс вида → количество, в порядке {@link #SPECIES}
+     */
+    public Map<Class<?>, Integer> census() {
+        // Метод считает все виды сразу, полосы строк обрабатываются параллельно.
+        Map<Class<?>, LongAdder> counters = new ConcurrentHashMap<>();
+        for (Class<?> clazz : SPECIES) {
+            counters.put(clazz, new LongAdder());
+        }
+        VirtualThreadRunner.runBands(island.getLocation(), island.getRowsPerBand(), cell -> {
+            cell.getAnimals().forEach((clazz, list) ->
+                    counters.computeIfAbsent(clazz, k -> new LongAdder()).add(list.size()));
+            cell.getPlants().forEach((clazz, list) ->
+                    counters.computeIfAbsent(clazz, k -> new LongAdder()).add(list.size()));
+        });
+        PopulationStore population = island.getPopulation();
+        if (population != null) {
+            population.forEachCount((clazz, count) ->
+                    counters.computeIfAbsent(clazz, k -> new LongAdder()).add(count));
+            // Животные хранилища не числятся в клетках.
+        }
+        Map<Class<?>, Integer> census = new LinkedHashMap<>();
+        counters.forEach((clazz, counter) -> census.put(clazz, counter.intValue()));
+        Map<Class<?>, Integer> ordered = new LinkedHashMap<>();
+        for (Class<?> clazz : SPECIES) {
+            ordered.put(clazz, census.remove(clazz));
+            // Сначала известные виды в порядке вывода.
+        }
+        ordered.putAll(census);
+        // Затем все остальные (например, орлы).
+        return ordered;
+    }
+
+    /**
+     * Выводит результат переписи в консоль.
+     * Формат каждой строки: {@code <иконка> - <количество>}
+     *
+     * @param census результат {@link #census()}
+     */
+    public void printStatistics(Map<Class<?>, Integer> census) {
+        // Метод выводит статистику по всем видам из переписи.
+        census.forEach((clazz, count) ->
+                System.out.println(ICONS.getOrDefault(clazz, "?") + " - " + count));
+    }
+
     /**
      * Выводит статистику по указанному классу в консоль.
      * Формат: {@code <иконка> - <количество>}
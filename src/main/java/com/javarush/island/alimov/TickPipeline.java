@@ -0,0 +1,169 @@
+package com.javarush.island.alimov;
+// Пакет, в котором находится класс TickPipeline.
+
+import java.util.Map;
+// Импорт интерфейса Map для результата переписи.
+
+import java.util.concurrent.ScheduledExecutorService;
+// Импорт планировщика, который останавливается по окончании симуляции.
+
+/**
+ * Класс {@code TickPipeline} выполняет один такт симуляции как последовательность этапов:
+ * <ol>
+ *     <li>рост растений;</li>
+ *     <li>активность животных;</li>
+ *     <li>перепись по согласованному снимку конца такта;</li>
+ *     <li>проверка условия завершения.</li>
+ * </ol>
+ * Между тактами {@link ParallelismTuner} подбирает число параллельных полос
+ * по времени такта (при {@link Configuration#ADAPTIVE_THREADS}).
+ * <p>
+ * Конвейер измеряет опоздание каждого такта относительно идеального расписания
+ * (первый такт + номер × {@link Configuration#TICK_SIMULATION}) и предупреждает,
+ * когда симуляция отстаёт от реального времени больше чем на такт.
+ * Что делать с опозданием, решает способ запуска ({@link Configuration#CATCH_UP_TICKS}).
+ * Внутри этапа клетки обрабатываются параллельно, а следующий этап начинается
+ * только после завершения предыдущего (барьер). Поэтому статистика не считается
+ * во время движения животных, а рост растений не пересекается с поеданием.
+ * <p>
+ * Пример использования:
+ * <pre>{@code
+ * TickPipeline pipeline = new TickPipeline(island, statistics, executor);
+ * executor.scheduleAtFixedRate(pipeline::tick, 0, 1, TimeUnit.SECONDS);
+ * }</pre>
+ */
+public class TickPipeline {
+    // Класс описывает один упорядоченный такт симуляции.
+
+    private final Island island;
+    // Остров, на котором идёт симуляция.
+
+    private final Statistics statistics;
+    // Сбор статистики по видам.
+
+    private final ScheduledExecutorService executor;
+    // Планировщик тактов, останавливается при завершении симуляции.
+
+    private final ParallelismTuner tuner;
+    // Подбор числа параллельных полос или null, если оно задано в конфигурации.
+
+    private int step = 0;
+    // Номер такта. Такты не пересекаются, поэтому синхронизация не нужна.
+
+    private static final long LATENESS_SHOWN_NANOS = 1_000_000;
+    // Опоздание меньше миллисекунды — дрожание планировщика, в журнал не выводится.
+
+    private final long periodNanos = Configuration.TIME_UNIT.toNanos(Configuration.TICK_SIMULATION);
+    // Длительность такта по расписанию.
+
+    private long firstStart;
+    // Начало первого такта (0 — симуляция ещё не началась).
+
+    private long maxLateness;
+    // Наибольшее опоздание такта (нс).
+
+    private boolean slipping;
+    // Симуляция отстаёт от расписания больше чем на такт.
+
+    /**
+     * Конструктор конвейера такта.
+     *
+     * @param island     остров
+     * @param statistics статистика по острову
+     * @param executor   планировщик, запускающий такты
+     */
+    public TickPipeline(Island island, Statistics statistics, ScheduledExecutorService executor) {
+        this.island = island;
+        this.statistics = statistics;
+        this.executor = executor;
+        Cell[][] location = island.getLocation();
+        this.tuner = Configuration.ADAPTIVE_THREADS
+                ? new ParallelismTuner(island.getBandCount(), location.length, location.length * location[0].length)
+                : null;
+        if (tuner != null) {
+            island.setBandCount(tuner.getBands());
+            // Маленькая карта сразу получает одну полосу.
+        }
+    }
+
+    /**
+     * Выполняет один такт. Ошибка любого этапа выводится и останавливает симуляцию,
+     * иначе планировщик молча перестал бы запускать такты.
+     */
+    public void tick() {
+        try {
+            long start = System.nanoTime();
+            long lateness = measureLateness(start);
+            island.nextTick();
+            // Номер такта: по нему считается возраст растений.
+            island.runPlants();
+            // Этап 1: рост растений (возвращается после обработки всех клеток).
+            island.runAnimals();
+            // Этап 2: активность животных.
+            Map<Class<?>, Integer> census = statistics.census();
+            // Этап 3: перепись по состоянию конца такта.
+            long tickNanos = System.nanoTime() - start;
+            System.out.println(lateness >= LATENESS_SHOWN_NANOS ? String.format("Step %d (опоздание %.1f мс)", step, lateness / 1e6) : "Step " + step);
+            statistics.printStatistics(census);
+            step++;
+            checkEndCondition(census);
+            // Этап 4: проверка условия завершения.
+            tuneParallelism(tickNanos);
+            // Между тактами: подбор числа параллельных полос.
+        } catch (RuntimeException e) {
+            System.out.println("Симуляция остановлена из-за ошибки: " + e);
+            e.printStackTrace();
+            executor.shutdown();
+        }
+    }
+
+    private long measureLateness(long start) {
+        // Опоздание такта относительно идеального расписания; предупреждение — один раз на отставание.
+        if (firstStart == 0) {
+            firstStart = start;
+        }
+        long lateness = Math.max(0, start - (firstStart + step * periodNanos));
+        maxLateness = Math.max(maxLateness, lateness);
+        boolean late = lateness > periodNanos;
+        if (late && !slipping) {
+            System.out.printf("Симуляция отстаёт от реального времени: опоздание %.1f мс (макс. %.1f мс)%n",
+                    lateness / 1e6, maxLateness / 1e6);
+        }
+        slipping = late;
+        return lateness;
+    }
+
+    private void tuneParallelism(long tickNanos) {
+        // Передаёт время такта подборщику и применяет новое число полос.
+        if (tuner == null) {
+            return;
+        }
+        int previous = tuner.getBands();
+        int bands = tuner.onTick(tickNanos);
+        if (bands != previous) {
+            System.out.println(tuner.report());
+            // Выводим выбранное число полос и замеры, на которых основан выбор.
+            island.setBandCount(bands);
+        }
+    }
+
+    private void checkEndCondition(Map<Class<?>, Integer> census) {
+        // Симуляция завершается, когда на острове не осталось ни животных, ни растений.
+        PopulationStore population = island.getPopulation();
+        boolean empty = census.values().stream().allMatch(count -> count == 0)
+                && (population == null || !population.hasAnimals());
+        // Животные хранилища не лежат в клетках: хранилище спрашивается напрямую.
+        if (empty) {
+            System.out.println("Симуляция завершена: все животные погибли и растений не осталось.");
+            executor.shutdown();
+            if (population != null) {
+                population.close();
+                // Данные хранилища (в том числе вне кучи) больше не нужны.
+            }
+        }
+    }
+
+    public int getStep() {
+        return step;
+    }
+}
@@ -0,0 +1,135 @@
+package com.javarush.island.alimov;
+// Пакет, в котором находится класс TimerWheel.
+
+import java.util.ArrayList;
+// Импорт класса ArrayList для списка сработавших событий.
+
+import java.util.List;
+// Импорт интерфейса List.
+
+import java.util.Queue;
+// Импорт интерфейса очереди слота.
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+// Импорт неблокирующей очереди: события планируют разные потоки этапа.
+
+/**
+ * Класс {@code TimerWheel} — иерархическое колесо таймеров: событие с известным
+ * тактом срабатывания кладётся в слот и извлекается ровно в свой такт.
+ * <ul>
+ *     <li>Уровень 0 — {@value #SLOTS} слотов по одному такту, уровень 1 — по
+ *     {@value #SLOTS} тактов и так далее: уровень выбирается по тому, как далеко
+ *     до срабатывания.</li>
+ *     <li>Когда время доходит до начала слота верхнего уровня, его события
+ *     перекладываются на нижние уровни (каскад).</li>
+ *     <li>Планирование и извлечение — O(1) на событие; такт без событий стоит
+ *     несколько обращений к слотам, независимо от числа запланированных событий.</li>
+ * </ul>
+ * Отменить событие нельзя: получатель сам проверяет, актуально ли оно
+ * (например, жив ли ещё организм).
+ * <p>
+ * Планировать можно из нескольких потоков одновременно, а {@link #advance}
+ * вызывается только между этапами, когда никто не планирует.
+ * <p>
+ * Пример использования:
+ * <pre>{@code
+ * wheel.schedule(tick + 20, plant);
+ * List<Plant> due = wheel.advance(tick);
+ * }</pre>
+ *
+ * @param <T> тип события
+ */
+public class TimerWheel<T> {
+    // Класс хранит события по тактам срабатывания.
+
+    private static final int SLOT_BITS = 6;
+    // Количество бит номера такта на один уровень.
+
+    private static final int SLOTS = 1 << SLOT_BITS;
+    // Количество слотов на уровне.
+
+    private static final int LEVELS = 4;
+    // Количество уровней: колесо охватывает 64^4 тактов, дальние события перекладываются повторно.
+
+    private record Timer<T>(long due, T event) {
+        // Событие и такт его срабатывания.
+    }
+
+    private final List<List<Queue<Timer<T>>>> wheels = new ArrayList<>();
+    // Уровень → слоты уровня.
+
+    private volatile long now;
+    // Последний обработанный такт.
+
+    /**
+     * Конструктор колеса.
+     *
+     * @param now текущий такт (события до него включительно уже обработаны)
+     */
+    public TimerWheel(long now) {
+        this.now = now;
+        for (int level = 0; level < LEVELS; level++) {
+            List<Queue<Timer<T>>> slots = new ArrayList<>(SLOTS);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots.add(new ConcurrentLinkedQueue<>());
+            }
+            wheels.add(slots);
+        }
+    }
+
+    /**
+     * Планирует событие.
+     *
+     * @param due   такт срабатывания; прошедший такт заменяется следующим
+     * @param event событие
+     */
+    public void schedule(long due, T event) {
+        place(new Timer<>(Math.max(due, now + 1), event));
+    }
+
+    private void place(Timer<T> timer) {
+        // Уровень — по расстоянию до срабатывания, слот — по битам такта срабатывания этого уровня.
+        long delta = timer.due() - now;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int slot = (int) ((timer.due() >>> (SLOT_BITS * level)) & (SLOTS - 1));
+        wheels.get(level).get(slot).add(timer);
+    }
+
+    /**
+     * Продвигает колесо до такта включительно.
+     *
+     * @param tick новый текущий такт
+     * @return события, сработавшие в пропущенных и в этом такте
+     */
+    public List<T> advance(long tick) {
+        List<T> fired = new ArrayList<>();
+        while (now < tick) {
+            now++;
+            for (int level = 1; level < LEVELS; level++) {
+                // Каскад: слот верхнего уровня раскладывается, когда время дошло до его начала.
+                if ((now & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                    break;
+                }
+                int slot = (int) ((now >>> (SLOT_BITS * level)) & (SLOTS - 1));
+                Queue<Timer<T>> timers = wheels.get(level).get(slot);
+                Timer<T> timer;
+                while ((timer = timers.poll()) != null) {
+                    if (timer.due() <= now) {
+                        fired.add(timer.event());
+                    } else {
+                        place(timer);
+                    }
+                }
+            }
+            Queue<Timer<T>> timers = wheels.get(0).get((int) (now & (SLOTS - 1)));
+            Timer<T> timer;
+            while ((timer = timers.poll()) != null) {
+                fired.add(timer.event());
+            }
+        }
+        return fired;
+    }
+}
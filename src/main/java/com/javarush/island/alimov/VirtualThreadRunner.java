@@ -0,0 +1,115 @@
+package com.javarush.island.alimov;
+// Пакет, в котором находится класс VirtualThreadRunner.
+
+import java.util.List;
+// Импорт интерфейса List.
+
+import java.util.ArrayList;
+// Импорт класса ArrayList для хранения задач.
+
+import java.util.concurrent.ExecutionException;
+// Исключение, в которое оборачивается ошибка задачи.
+
+import java.util.concurrent.ExecutorCompletionService;
+// Позволяет получать задачи в порядке их завершения.
+
+import java.util.concurrent.ExecutorService;
+// Интерфейс пула потоков.
+
+import java.util.concurrent.Executors;
+// Фабрика пулов потоков (в том числе виртуальных).
+
+import java.util.concurrent.Future;
+// Результат асинхронной задачи.
+
+import java.util.function.Consumer;
+// Действие, выполняемое над клеткой.
+
+/**
+ * Класс {@code VirtualThreadRunner} выполняет действие над всеми клетками острова,
+ * запуская каждую полосу строк в отдельном виртуальном потоке.
+ *
+ * <p>Каждый вызов {@link #runBands} — это отдельная область (scope) одного такта:
+ * <ul>
+ *     <li>все полосы стартуют одновременно, пул потоков подбирать не нужно;</li>
+ *     <li>при первой ошибке остальные полосы отменяются (fail-fast);</li>
+ *     <li>метод возвращается только после завершения всех полос (точка объединения).</li>
+ * </ul>
+ * Этапы, изменяющие клетки, запускаются через {@link CellOwnership}, который
+ * использует {@link #runTasks} и не требует блокировок.
+ * <p>
+ * Пример использования:
+ * <pre>{@code
+ * VirtualThreadRunner.runBands(island.getLocation(), 1, Cell::runAllPlants);
+ * }</pre>
+ */
+public class VirtualThreadRunner {
+    // Служебный класс запуска клеток острова в виртуальных потоках.
+
+    private VirtualThreadRunner() {
+    }
+
+    /**
+     * Выполняет действие над каждой клеткой, разбив карту на полосы строк.
+     *
+     * @param location    карта острова
+     * @param rowsPerBand количество строк в одной полосе (одном виртуальном потоке)
+     * @param action      действие над клеткой
+     */
+    public static void runBands(Cell[][] location, int rowsPerBand, Consumer<Cell> action) {
+        List<Runnable> bands = new ArrayList<>();
+        for (int from = 0; from < location.length; from += rowsPerBand) {
+            int bandFrom = from;
+            int bandTo = Math.min(from + rowsPerBand, location.length);
+            bands.add(() -> runBand(location, bandFrom, bandTo, action));
+            // Каждая полоса строк — отдельный виртуальный поток.
+        }
+        runTasks(bands);
+    }
+
+    /**
+     * Выполняет задачи, каждую в своём виртуальном потоке, и дожидается всех.
+     *
+     * @param tasks задачи одного этапа такта
+     */
+    public static void runTasks(List<Runnable> tasks) {
+        try (ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor()) {
+            // close() в конце try дожидается всех виртуальных потоков.
+            ExecutorCompletionService<Void> completion = new ExecutorCompletionService<>(scope);
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Runnable task : tasks) {
+                futures.add(completion.submit(task, null));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                awaitNext(completion, futures);
+                // Забираем задачи в порядке завершения, чтобы сразу увидеть ошибку.
+            }
+        }
+    }
+
+    private static void runBand(Cell[][] location, int from, int to, Consumer<Cell> action) {
+        // Обрабатывает строки [from, to) и прекращает работу, если такт отменён.
+        for (int i = from; i < to; i++) {
+            for (int j = 0; j < location[i].length; j++) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                action.accept(location[i][j]);
+            }
+        }
+    }
+
+    private static void awaitNext(ExecutorCompletionService<Void> completion, List<Future<Void>> bands) {
+        // Ждёт завершения очередной полосы; при ошибке отменяет остальные.
+        try {
+            completion.take().get();
+        } catch (ExecutionException e) {
+            bands.forEach(band -> band.cancel(true));
+            throw new IllegalStateException("Ошибка в такте симуляции", e.getCause());
+        } catch (InterruptedException e) {
+            bands.forEach(band -> band.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Такт симуляции прерван", e);
+        }
+    }
+}
@@ -3,13 +3,14 @@ package com.javarush.island.alimov.entity.animals;
 import com.javarush.island.alimov.Cell;
 import com.javarush.island.alimov.Configuration;
 import com.javarush.island.alimov.Island;
+import com.javarush.island.alimov.RandomSource;
+import com.javarush.island.alimov.SpeciesRegistry;
 import com.javarush.island.alimov.entity.plants.Plant;
 
-import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ThreadLocalRandom;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.random.RandomGenerator;
 
 /**
  * Абстрактный класс {@code Animal} представляет животное на острове.
@@ -17,6 +18,11 @@ import java.util.concurrent.locks.ReentrantLock;
  * размножаться и умирать. Класс реализует интерфейс {@link Runnable},
  * что позволяет запускать жизненный цикл животного в многопоточном режиме.
  *
+ * <p>Животное изменяет только владелец его клетки ({@code CellOwnership}),
+ * поэтому собственная блокировка не нужна. Изменения чужих клеток
+ * (переход, рождение, смерть) выполняются через {@link Island}: сразу
+ * или, в двухфазном режиме, как намерения ({@code IntentBuffers}).
+ *
  * <p>Основные возможности:
  * <ul>
  *     <li>Хранение информации о животном (имя, иконка, вес, клетка).</li>
@@ -34,6 +40,7 @@ import java.util.concurrent.locks.ReentrantLock;
  * }</pre>
  */
 public abstract class Animal implements Runnable {
+    private static final Diet[] DIETS = new Diet[SpeciesRegistry.size()]; // Номер вида → скомпилированный рацион
     protected final String name; // Имя животного
     protected final String icon; // Иконка (символ) животного
     protected volatile double currentWeight; // Текущий вес животного (volatile — для многопоточности)
@@ -44,8 +51,9 @@ public abstract class Animal implements Runnable {
     protected volatile Cell currentCell; // Текущая клетка, где находится животное
     protected final Island island; // Ссылка на остров
     protected volatile boolean isAlive; // Флаг — живо ли животное
-    protected int age = 0; // Возраст животного
+    protected final int bornTick; // Такт рождения: возраст — разница с текущим тактом
     protected boolean isHungry = false; // Флаг — голодно ли животное
+    protected final int speciesId = SpeciesRegistry.idOf(getClass()); // Номер вида в реестре видов
 
     public void setAlive(boolean alive) { // Сеттер для состояния жизни
         isAlive = alive;
@@ -55,7 +63,9 @@ public abstract class Animal implements Runnable {
         this.currentWeight = currentWeight;
     }
 
-    protected final ReentrantLock lock = new ReentrantLock(); // Блокировка для потокобезопасности
+    public void setCurrentCell(Cell currentCell) { // Сеттер для текущей клетки (вызывает владелец клетки)
+        this.currentCell = currentCell;
+    }
 
     /**
      * Конструктор для создания животного.
@@ -85,6 +95,8 @@ public abstract class Animal implements Runnable {
         this.island = island;
         this.isAlive = isAlive;
         this.isHungry = false; // Животное создаётся не голодным
+        this.bornTick = island.getTick(); // Такт рождения
+        island.scheduleLifecycle(this); // Такт смерти от старости известен заранее
     }
 
     // Геттеры для полей
@@ -100,6 +112,10 @@ public abstract class Animal implements Runnable {
         return currentWeight;
     }
 
+    public double getMaxWeight() {
+        return maxWeight;
+    }
+
     public int getMaxPerCell() {
         return maxPerCell;
     }
@@ -126,12 +142,28 @@ public abstract class Animal implements Runnable {
 
     /**
      * Источники пищи для животного.
-     * <p>Карта: класс пищи → вероятность успешного поедания.</p>
+     * <p>Карта: класс пищи → вероятность успешного поедания, в порядке предпочтения
+     * (см. {@link #foodSources}).</p>
      *
      * @return карта источников пищи
      */
     protected abstract Map<Class<?>, Double> getFoodSources(); // Источники пищи (класс → вероятность поедания)
 
+    /**
+     * Собирает источники пищи в порядке объявления: в этом порядке животное охотится.
+     *
+     * @param entries пары «класс пищи → вероятность поедания»
+     * @return упорядоченная карта источников пищи
+     */
+    @SafeVarargs
+    protected static Map<Class<?>, Double> foodSources(Map.Entry<? extends Class<?>, Double>... entries) {
+        Map<Class<?>, Double> sources = new LinkedHashMap<>(); // Сохраняет порядок объявления
+        for (Map.Entry<? extends Class<?>, Double> entry : entries) {
+            sources.put(entry.getKey(), entry.getValue());
+        }
+        return sources;
+    }
+
     /**
      * Создание нового экземпляра животного (для размножения).
      *
@@ -141,45 +173,92 @@ public abstract class Animal implements Runnable {
      */
     protected abstract Animal createNewInstance(Cell cell, Island island); // Создание нового экземпляра животного (для размножения)
 
+    public int getSpeciesId() { // Номер вида
+        return speciesId;
+    }
+
+    public int getBornTick() { // Такт рождения
+        return bornTick;
+    }
+
+    public int getAge() { // Возраст в тактах
+        return island.getTick() - bornTick;
+    }
+
+    /**
+     * Смерть от старости: вызывается колесом событий в такте, когда возраст
+     * достиг {@link Configuration#MAX_AGE_ANIMALS}, после хода животного.
+     */
+    public void dieOfAge() {
+        isAlive = false; // Животное умирает
+        island.removeAnimal(currentCell, this); // Удаляем животное из клетки
+    }
+
+    /**
+     * Создание детёныша того же вида.
+     *
+     * @param cell клетка рождения
+     * @return новое животное
+     */
+    public Animal newChild(Cell cell) {
+        return createNewInstance(cell, island);
+    }
+
+    /**
+     * Рацион вида: номера видов добычи и вероятности в порядке предпочтения.
+     * Компилируется из {@link #getFoodSources()} один раз на вид, а не при каждом поиске пищи.
+     * Гонка при первом обращении безвредна: рацион неизменяем, и все потоки строят одинаковый.
+     *
+     * @return рацион вида
+     */
+    public Diet getDiet() {
+        Diet diet = DIETS[speciesId];
+        if (diet == null) {
+            diet = Diet.compile(getFoodSources()); // Первое обращение к виду
+            DIETS[speciesId] = diet;
+        }
+        return diet;
+    }
+
     /**
      * Поиск и поедание пищи в клетке.
+     * <p>Виды добычи перебираются в порядке рациона, как и раньше: каждая особь вида
+     * ловится с его вероятностью, первая удача заканчивает охоту. Вид улова выбирается
+     * одним случайным числом ({@link Diet#hunt}), жертвой становится случайная особь этого вида.</p>
      *
      * @param cell клетка, где животное ищет пищу
      */
     public void eat(Cell cell) {
-        lock.lock(); // Блокируем доступ для потокобезопасности
-        try {
-            if (!isAlive) return; // Если животное мертво — ничего не делаем
-
-            Map<Class<?>, Double> foodSources = getFoodSources(); // Получаем список источников пищи
-
-            for (Map.Entry<Class<?>, Double> entry : foodSources.entrySet()) { // Перебираем все источники пищи
-                Class<?> foodType = entry.getKey(); // Тип пищи (животное или растение)
-                double chance = entry.getValue(); // Вероятность успешного поедания
-
-                if (Animal.class.isAssignableFrom(foodType)) { // Если пища — другое животное
-                    List<Animal> preyList = cell.getAnimals().getOrDefault(foodType, List.of()); // Получаем список животных данного типа
-                    for (Animal prey : new ArrayList<>(preyList)) { // Перебираем всех жертв
-                        if (prey.isAlive() && ThreadLocalRandom.current().nextDouble() < chance) { // Если жертва жива и сработала вероятность
-                            consume(prey, cell); // Съедаем жертву
-                            return;
-                        }
-                    }
-                } else if (Plant.class.isAssignableFrom(foodType)) { // Если пища — растение
-                    List<Plant> plantList = cell.getPlants().getOrDefault(foodType, List.of()); // Получаем список растений
-                    for (Plant plant : new ArrayList<>(plantList)) {
-                        if (plant.isAlive() && ThreadLocalRandom.current().nextDouble() < chance) { // Если растение живо и вероятность сработала
-                            consume(plant, cell); // Съедаем растение
-                            return;
-                        }
-                    }
-                }
-            }
-        } finally {
-            lock.unlock(); // Освобождаем блокировку
+        if (!isAlive) return; // Если животное мертво — ничего не делаем
+
+        Diet diet = getDiet(); // Скомпилированный рацион вида
+        RandomGenerator random = RandomSource.current(); // Генератор клетки или потока
+        int i = diet.hunt(k -> preyOf(cell, diet, k).size(), random); // Пойманный вид добычи
+        if (i < 0) return; // Никого не поймали
+
+        List<?> preyList = preyOf(cell, diet, i); // Особи пойманного вида
+        Object prey = preyList.get(random.nextInt(preyList.size())); // Случайная особь
+        if (prey instanceof Animal animal && animal.isAlive()) {
+            consume(animal, cell); // Съедаем жертву
+        } else if (prey instanceof Plant plant && plant.isAlive()) {
+            consume(plant, cell); // Съедаем растение
         }
     }
 
+    /**
+     * Особи вида добычи в клетке.
+     *
+     * @param cell клетка
+     * @param diet рацион
+     * @param i    позиция в рационе
+     * @return список особей (пустой, если вида в клетке нет)
+     */
+    private static List<?> preyOf(Cell cell, Diet diet, int i) {
+        Class<?> type = SpeciesRegistry.type(diet.prey(i)); // Класс вида добычи
+        List<?> list = diet.isAnimal(i) ? cell.getAnimals().get(type) : cell.getPlants().get(type);
+        return list == null ? List.of() : list;
+    }
+
     /**
      * Метод поедания животного-жертвы.
      * <p>Уменьшает вес жертвы, увеличивает вес хищника,
@@ -195,7 +274,7 @@ public abstract class Animal implements Runnable {
 
         if (prey.getCurrentWeight() <= 0) { // Если жертва полностью съедена
             prey.setAlive(false); // Жертва умирает
-            cell.removeAnimal(prey); // Удаляем её из клетки
+            island.removeAnimal(cell, prey); // Удаляем её из клетки
         }
         this.isHungry = false; // Хищник больше не голоден
     }
@@ -215,29 +294,22 @@ public abstract class Animal implements Runnable {
 
         if (plant.getCurrentWeight() <= 0) { // Если растение полностью съедено
             plant.setAlive(false); // Растение умирает
-            cell.removePlant(plant); // Удаляем его из клетки
+            island.removePlant(cell, plant); // Удаляем его из клетки
         }
         this.isHungry = false; // Животное больше не голодно
     }
     /**
      * Перемещение животного
+     * <p>Переход в клетку другого владельца завершается после этапа такта
+     * (см. {@link Island#moveAnimal}).</p>
      *
      * @param source клетка, где находится животное
      * @param destination клетка, куда переместиться
      */
     public void move(Cell source, Cell destination) {
-        lock.lock();
-        try {
-            if (!isAlive) return; // Если мёртвое — не двигается
-            if (destination == null) return; // Если нет клетки назначения — не двигается
-            if (destination.hasSpaceForAnimal(this)) { // Если в клетке есть место для животного
-                source.removeAnimal(this); // Убираем из текущей клетки
-                destination.addAnimal(this); // Добавляем в новую клетку
-                this.currentCell = destination; // Обновляем текущую клетку
-            }
-        } finally {
-            lock.unlock();
-        }
+        if (!isAlive) return; // Если мёртвое — не двигается
+        if (destination == null || destination == source) return; // Если нет клетки назначения — не двигается
+        island.moveAnimal(this, source, destination); // Перемещаемся через владельца клетки назначения
     }
 
     /**
@@ -246,31 +318,21 @@ public abstract class Animal implements Runnable {
      * @param cell клетка, где находится животное
      */
     public void reproduce(Cell cell) {
-        lock.lock();
-        try {
-            if (!isAlive) return; // Мёртвое животное не размножается
-            if (this.isHungry == true) return; // Голодное животное не размножается
-
-            List<Animal> sameSpecies = cell.getAnimals().getOrDefault(this.getClass(), List.of()); // Получаем список животных того же вида
-            if (sameSpecies.size() > 1) { // Если есть хотя бы два животных одного вида
-                if (this.currentWeight >= this.maxWeight * 0.5) { // Если вес достаточный (>= 50% от максимума)
-                    if (ThreadLocalRandom.current().nextDouble() < Configuration.ANIMAL_CELL_SEX_CHANCE) { // Вероятность спаривания
-                        if (ThreadLocalRandom.current().nextDouble() < Configuration.ANIMAL_CELL_REPRODUCE_CHANCE) { // Вероятность успешного размножения
-                            int count = ThreadLocalRandom.current()
-                                    .nextInt(Configuration.MAX_ANIMALS_REPRODUCE_IN_1_TICK) + 1; // Количество потомков
-                            for (int i = 0; i < count; i++) {
-                                if (cell.hasSpaceForAnimal(this)) { // Если есть место для потомка
-                                    Animal child = createNewInstance(cell, island); // Создаём нового ребёнка
-                                    cell.addAnimal(child); // Добавляем его в клетку
-                                }
-                            }
-                        }
-
+        if (!isAlive) return; // Мёртвое животное не размножается
+        if (this.isHungry == true) return; // Голодное животное не размножается
+
+        List<Animal> sameSpecies = cell.getAnimals().getOrDefault(this.getClass(), List.of()); // Получаем список животных того же вида
+        if (sameSpecies.size() > 1) { // Если есть хотя бы два животных одного вида
+            if (this.currentWeight >= this.maxWeight * 0.5) { // Если вес достаточный (>= 50% от максимума)
+                if (RandomSource.current().nextDouble() < Configuration.ANIMAL_CELL_SEX_CHANCE) { // Вероятность спаривания
+                    if (RandomSource.current().nextDouble() < Configuration.ANIMAL_CELL_REPRODUCE_CHANCE) { // Вероятность успешного размножения
+                        int count = RandomSource.current()
+                                .nextInt(Configuration.MAX_ANIMALS_REPRODUCE_IN_1_TICK) + 1; // Количество потомков
+                        island.bornAnimals(cell, this, count); // Потомков добавляет владелец клетки
                     }
+
                 }
             }
-        } finally {
-            lock.unlock();
         }
     }
 
@@ -287,9 +349,9 @@ public abstract class Animal implements Runnable {
         int currentY = currentCell.getY(); // Получаем текущую координату Y клетки
 
         // Генерируем случайное смещение по X в пределах [-speed, speed]
-        int deltaX = ThreadLocalRandom.current().nextInt(-speed, speed + 1);
+        int deltaX = RandomSource.current().nextInt(-speed, speed + 1);
         // Генерируем случайное смещение по Y в пределах [-speed, speed]
-        int deltaY = ThreadLocalRandom.current().nextInt(-speed, speed + 1);
+        int deltaY = RandomSource.current().nextInt(-speed, speed + 1);
 
         // Вычисляем новую координату X, ограничивая её границами острова
         int newX = Math.max(0, Math.min(Configuration.SIZE_ISLAND_FOR_X - 1, currentX + deltaX));
@@ -306,30 +368,23 @@ public abstract class Animal implements Runnable {
      */
     @Override
     public void run() { // Метод run() — логика поведения животного в одном "тике" симуляции
-        lock.lock(); // Блокируем доступ для потокобезопасности
         this.isHungry = true; // Животное становится голодным
         this.currentWeight -= (this.maxWeight * 0.2); // Животное теряет часть веса (20% от максимального)
-        this.age += 1; // Увеличиваем возраст животного на 1
 
-        try {
-            if (!isAlive) return; // Если животное мертво — прекращаем выполнение
+        if (!isAlive) return; // Если животное мертво — прекращаем выполнение
 
-            eat(currentCell); // Пытаемся поесть в текущей клетке
+        eat(currentCell); // Пытаемся поесть в текущей клетке
 
-            // Выбираем случайную клетку в пределах скорости
-            Cell destination = getRandomCellWithinSpeed(currentCell, this.speed, island.getLocation());
+        // Выбираем случайную клетку в пределах скорости
+        Cell destination = getRandomCellWithinSpeed(currentCell, this.speed, island.getLocation());
 
-            move(currentCell, destination); // Перемещаемся в выбранную клетку
-            reproduce(currentCell); // Пытаемся размножиться в текущей клетке
+        move(currentCell, destination); // Перемещаемся в выбранную клетку
+        reproduce(currentCell); // Пытаемся размножиться в текущей клетке
 
-            // Проверяем условия смерти: вес <= 0 или возраст >= максимального
-            if (currentWeight <= 0 || age >= Configuration.MAX_AGE_ANIMALS) {
-                isAlive = false; // Животное умирает
-                currentCell.removeAnimal(this); // Удаляем животное из клетки
-            }
-        } finally {
-            lock.unlock(); // Освобождаем блокировку
+        // Проверяем условия смерти: вес <= 0 или (без колеса событий) возраст >= максимального
+        if (currentWeight <= 0 || (!Configuration.USE_TIMER_WHEEL && getAge() >= Configuration.MAX_AGE_ANIMALS)) {
+            isAlive = false; // Животное умирает
+            island.removeAnimal(currentCell, this); // Удаляем животное из клетки через её владельца
         }
     }
 }
-
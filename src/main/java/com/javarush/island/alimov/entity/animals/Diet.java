@@ -0,0 +1,120 @@
+package com.javarush.island.alimov.entity.animals;
+
+import com.javarush.island.alimov.SpeciesRegistry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+import java.util.random.RandomGenerator;
+
+/**
+ * Скомпилированный рацион вида: номера видов добычи ({@link SpeciesRegistry}),
+ * вероятности поедания и признак «добыча — животное» в порядке предпочтения.
+ * Строится один раз на вид из {@link Animal#getFoodSources()} и дальше только читается,
+ * поэтому поиск пищи не создаёт карт и списков и не проверяет классы.
+ *
+ * <p>Охота ({@link #hunt}) повторяет прежний перебор рациона: виды добычи пробуются
+ * в порядке объявления, каждая из {@code n} особей вида ловится с вероятностью {@code p},
+ * и первая удача заканчивает охоту. Вместо броска на каждую особь берётся одно число:
+ * вид {@code k} пойман, если оно не меньше вероятности промахнуться по всем особям
+ * видов до {@code k} включительно, {@code prod (1 - p)^n}. Пропускаются только виды,
+ * которых в клетке нет, поэтому распределение улова то же, что у прежнего перебора.
+ * <p>
+ * Пример использования:
+ * <pre>{@code
+ * Diet diet = Diet.compile(wolf.getFoodSources());
+ * int i = diet.hunt(k -> preyCount(cell, k), RandomSource.current());
+ * Class<?> prey = i < 0 ? null : SpeciesRegistry.type(diet.prey(i));
+ * }</pre>
+ */
+public final class Diet {
+    private final int[] prey; // Номера видов добычи
+    private final double[] chance; // Вероятность поедания добычи
+    private final double[] logMiss; // Логарифм вероятности промаха по одной особи: ln(1 - p)
+    private final boolean[] animal; // Добыча — животное (иначе растение)
+
+    private Diet(int[] prey, double[] chance) {
+        int n = prey.length;
+        this.prey = prey;
+        this.chance = chance;
+        this.logMiss = new double[n];
+        this.animal = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            logMiss[i] = Math.log1p(-chance[i]); // p = 1 даёт -∞: промах невозможен
+            animal[i] = SpeciesRegistry.isAnimal(prey[i]); // Вид добычи известен заранее
+        }
+    }
+
+    /**
+     * Компилирует источники пищи вида в порядке их перебора. Виды, которых нет
+     * на острове, и добыча с нулевой вероятностью пропускаются.
+     *
+     * @param sources карта: класс пищи → вероятность поедания, в порядке предпочтения
+     * @return рацион
+     */
+    public static Diet compile(Map<Class<?>, Double> sources) {
+        List<Map.Entry<Class<?>, Double>> entries = sources.entrySet().stream()
+                .filter(entry -> SpeciesRegistry.idOf(entry.getKey()) >= 0 && entry.getValue() > 0)
+                .toList(); // Порядок предпочтения из getFoodSources()
+        int[] prey = new int[entries.size()];
+        double[] chance = new double[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            prey[i] = SpeciesRegistry.idOf(entries.get(i).getKey());
+            chance[i] = entries.get(i).getValue();
+        }
+        return new Diet(prey, chance);
+    }
+
+    /**
+     * @return количество видов добычи
+     */
+    public int size() {
+        return prey.length;
+    }
+
+    /**
+     * @param i позиция в рационе
+     * @return номер вида добычи
+     */
+    public int prey(int i) {
+        return prey[i];
+    }
+
+    /**
+     * @param i позиция в рационе
+     * @return вероятность поедания
+     */
+    public double chance(int i) {
+        return chance[i];
+    }
+
+    /**
+     * @param i позиция в рационе
+     * @return {@code true}, если добыча — животное
+     */
+    public boolean isAnimal(int i) {
+        return animal[i];
+    }
+
+    /**
+     * Охота в клетке: одно случайное число и один проход по рациону.
+     *
+     * @param count  количество особей добычи в клетке по позиции рациона
+     * @param random генератор случайных чисел
+     * @return позиция пойманного вида или {@code -1}, если никого не поймали
+     */
+    public int hunt(IntUnaryOperator count, RandomGenerator random) {
+        double logRoll = Math.log(random.nextDouble()); // Бросок в логарифме: сравнение без возведения в степень
+        double logMissAll = 0; // ln вероятности промахнуться по всем видам до позиции i включительно
+        for (int i = 0; i < prey.length; i++) {
+            int n = count.applyAsInt(i);
+            if (n > 0) {
+                logMissAll += n * logMiss[i];
+                if (logRoll >= logMissAll) {
+                    return i; // Первый вид, на котором охота удалась
+                }
+            }
+        }
+        return -1;
+    }
+}
@@ -13,7 +13,7 @@ public class Mouse extends Herbivore{
     }
     @Override
     protected Map<Class<?>, Double> getFoodSources() {
-        return Map.ofEntries(
+        return foodSources(
                 Map.entry(Grass.class, 1.0),
                 Map.entry(Caterpillar.class, 0.9)
         );
@@ -17,7 +17,7 @@ public class Bear extends Predator{
     }
     @Override
     protected Map<Class<?>, Double> getFoodSources() {
-        return Map.ofEntries(
+        return foodSources(
                 Map.entry(Boa.class, 0.8),
                 Map.entry(Horse.class, 0.4),
                 Map.entry(Deer.class, 0.8),
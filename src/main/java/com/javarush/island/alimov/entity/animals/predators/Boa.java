@@ -16,7 +16,7 @@ public class Boa extends Predator {
     }
     @Override
     protected Map<Class<?>, Double> getFoodSources() {
-        return Map.ofEntries(
+        return foodSources(
                 Map.entry(Rabbit.class, 0.2),
                 Map.entry(Fox.class, 0.15),
                 Map.entry(Mouse.class, 0.4),
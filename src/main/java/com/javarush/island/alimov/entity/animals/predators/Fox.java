@@ -14,7 +14,7 @@ public class Fox extends Predator{
     }
     @Override
     protected Map<Class<?>, Double> getFoodSources() {
-        return Map.ofEntries(
+        return foodSources(
                 Map.entry(Rabbit.class, 0.7),
                 Map.entry(Mouse.class, 0.9),
                 Map.entry(Duck.class, 0.6),
@@ -21,7 +21,7 @@ public class Wolf extends Predator {
 
     @Override
     protected Map<Class<?>, Double> getFoodSources() {
-        return Map.ofEntries(
+        return foodSources(
                 Map.entry(Rabbit.class, 0.6),
                 Map.entry(Sheep.class, 0.7),
                 Map.entry(Deer.class, 0.15),
@@ -10,20 +10,28 @@ import com.javarush.island.alimov.Configuration;
 import com.javarush.island.alimov.Island;
 // Импорт класса Island — весь остров.
 
+import com.javarush.island.alimov.RandomSource;
+// Импорт источника случайных чисел (поток клетки при заданном зерне).
+
+import com.javarush.island.alimov.SpeciesRegistry;
+// Импорт реестра видов (номер вида).
+
+import java.util.LinkedHashMap;
+// Импорт карты с порядком вставки для подсчёта потомков по клеткам.
+
 import java.util.List;
 // Импорт интерфейса List для работы со списками.
 
-import java.util.concurrent.ThreadLocalRandom;
-// Импорт генератора случайных чисел для многопоточной среды.
-
-import java.util.concurrent.locks.ReentrantLock;
-// Импорт блокировки для синхронизации потоков.
+import java.util.Map;
+// Импорт интерфейса Map.
 
 /**
  * Абстрактный класс {@code Plant} представляет растение на острове.
  * Растения обладают весом, возрастом, могут размножаться и умирать.
  * Класс реализует интерфейс {@link Runnable}, что позволяет запускать
  * жизненный цикл растения в многопоточном режиме.
+ * Растение изменяет только владелец его клетки, поэтому блокировка не нужна;
+ * рождения и смерть проходят через {@link Island}.
  *
  * <p>Основные возможности:
  * <ul>
@@ -63,11 +71,11 @@ public abstract class Plant implements Runnable {
     protected volatile boolean isAlive;
     // Флаг состояния растения (живое/мертвое).
 
-    protected int age = 0;
-    // Возраст растения (увеличивается каждый тик).
+    protected final int bornTick;
+    // Такт рождения: возраст растения — разница с текущим тактом (не нужно обходить растение каждый такт).
 
-    protected final ReentrantLock lock = new ReentrantLock();
-    // Блокировка для синхронизации доступа к объекту растения.
+    protected final int speciesId = SpeciesRegistry.idOf(getClass());
+    // Номер вида в реестре видов.
 
     /**
      * Конструктор растения.
@@ -90,6 +98,15 @@ public abstract class Plant implements Runnable {
         this.currentCell = currentCell;
         this.island = island;
         this.isAlive = isAlive;
+        this.bornTick = island.getTick();
+        // Растение, созданное до первого такта, в первом такте имеет возраст 1.
+        island.scheduleLifecycle(this);
+        // Такты размножения и смерти от старости известны заранее.
+    }
+
+    public int getSpeciesId() {
+        // Номер вида.
+        return speciesId;
     }
 
     public void setCurrentWeight(double currentWeight) {
@@ -131,6 +148,17 @@ public abstract class Plant implements Runnable {
         return isAlive;
     }
 
+    public int getBornTick() {
+        return bornTick;
+    }
+
+    /**
+     * @return возраст растения в тактах (1 — в первом такте после рождения)
+     */
+    public int getAge() {
+        return island.getTick() - bornTick;
+    }
+
     /**
      * Абстрактный метод для создания нового экземпляра растения.
      * Реализуется в наследниках (например, Grass).
@@ -142,74 +170,76 @@ public abstract class Plant implements Runnable {
     protected abstract Plant createNewInstance(Cell cell, Island island);
     // Абстрактный метод для создания нового экземпляра растения (реализуется в наследниках).
 
+    /**
+     * Создание ростка того же вида.
+     *
+     * @param cell клетка рождения
+     * @return новое растение
+     */
+    public Plant newChild(Cell cell) {
+        return createNewInstance(cell, island);
+    }
+
     /**
      * Размножение растения в текущей или соседней клетке.
+     * <p>Потомки сначала подсчитываются по клеткам, затем каждая клетка
+     * получает их одним изменением у своего владельца.</p>
      *
      * @param cell   клетка, где находится растение
      * @param island остров
      */
     public void reproduce(Cell cell, Island island) {
         // Метод размножения растения.
-        lock.lock();
-        // Захватываем блокировку для потокобезопасности.
-        try {
-            int rnd = ThreadLocalRandom.current()
-                    .nextInt(Configuration.MAX_PLANTS_REPRODUCE_IN_1_TICK);
-            // Генерируем случайное количество попыток размножения.
-
-            if (!cell.hasSpaceForPlant(this)) return;
-            // Если в клетке нет места для растения — выходим.
-
-            for (int i = 0; i <= rnd; i++) {
-                // Цикл размножения.
-                if (this.age >= 2) return;
-                // Если растение слишком старое (возраст >= 2), оно больше не размножается.
-
-                if (ThreadLocalRandom.current().nextDouble() < Configuration.NEIGHBOR_CELL_REPRODUCE_CHANCE) {
-                    // Случайно выбираем: размножение в соседней клетке.
-                    Cell neighbor = getRandomNeighborCell(cell, island);
-                    if (neighbor != null && neighbor.hasSpaceForPlant(this)) {
-                        neighbor.addPlant(createNewInstance(neighbor, island));
-                        // Добавляем новое растение в соседнюю клетку.
-                    }
-                } else {
-                    cell.addPlant(createNewInstance(cell, island));
-                    // Иначе — создаём новое растение в текущей клетке.
+        int rnd = RandomSource.current()
+                .nextInt(Configuration.MAX_PLANTS_REPRODUCE_IN_1_TICK);
+        // Генерируем случайное количество попыток размножения.
+
+        if (!cell.hasSpaceForPlant(this)) return;
+        // Если в клетке нет места для растения — выходим.
+
+        int age = getAge();
+        if (age < 1 || age >= 2) return;
+        // Размножается только в первом такте жизни (родившееся в этом такте — ещё нет).
+
+        Map<Cell, Integer> births = new LinkedHashMap<>();
+        // Количество потомков по клеткам.
+        for (int i = 0; i <= rnd; i++) {
+            // Цикл размножения.
+            if (RandomSource.current().nextDouble() < Configuration.NEIGHBOR_CELL_REPRODUCE_CHANCE) {
+                // Случайно выбираем: размножение в соседней клетке.
+                Cell neighbor = getRandomNeighborCell(cell, island);
+                if (neighbor != null) {
+                    births.merge(neighbor, 1, Integer::sum);
                 }
+            } else {
+                births.merge(cell, 1, Integer::sum);
+                // Иначе — потомок в текущей клетке.
             }
-        } finally {
-            lock.unlock();
-            // Освобождаем блокировку.
         }
+        births.forEach((target, count) ->
+                island.bornPlants(target, this, count));
+        // Добавлять потомков будет владелец каждой клетки.
     }
 
     /**
      * Жизненный цикл растения.
-     * <p>Увеличивает возраст, пытается размножиться,
-     * проверяет условия смерти (вес ≤ 0 или возраст ≥ MAX_AGE_PLANTS).</p>
+     * <p>Пытается размножиться, проверяет условия смерти
+     * (вес ≤ 0 или возраст ≥ MAX_AGE_PLANTS). Возраст считается по номеру такта.</p>
      */
     @Override
     public void run() {
-        // Метод run — жизненный цикл растения, вызывается в многопоточном режиме.
-        lock.lock();
-        this.age++;
-        // Увеличиваем возраст растения.
-        try {
-            if (!isAlive) return;
-            // Если растение мёртвое — ничего не делаем.
-
-            reproduce(currentCell, island);
-            // Пытаемся размножиться.
-
-            if (this.currentWeight <= 0 || this.age >= Configuration.MAX_AGE_PLANTS) {
-                // Если вес <= 0 или возраст превысил максимум — растение умирает.
-                isAlive = false;
-                currentCell.removePlant(this);
-                // Удаляем растение из клетки.
-            }
-        } finally {
-            lock.unlock();
-            // Освобождаем блокировку.
+        // Метод run — жизненный цикл растения, вызывается владельцем клетки.
+        if (!isAlive) return;
+        // Если растение мёртвое — ничего не делаем.
+
+        reproduce(currentCell, island);
+        // Пытаемся размножиться.
+
+        if (this.currentWeight <= 0 || getAge() >= Configuration.MAX_AGE_PLANTS) {
+            // Если вес <= 0 или возраст превысил максимум — растение умирает.
+            isAlive = false;
+            island.removePlant(currentCell, this);
+            // Удаляем растение из своей клетки.
         }
     }
 
@@ -226,7 +256,7 @@ public abstract class Plant implements Runnable {
         if (neighbors == null || neighbors.isEmpty()) {
             return null;
         }
-        return neighbors.get(ThreadLocalRandom.current().nextInt(neighbors.size()));
+        return neighbors.get(RandomSource.current().nextInt(neighbors.size()));
         // Выбираем случайного соседа из списка.
     }
 }
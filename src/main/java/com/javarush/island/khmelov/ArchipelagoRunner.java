@@ -0,0 +1,75 @@
+package com.javarush.island.khmelov;
+
+import com.javarush.island.khmelov.api.init.Initialization;
+import com.javarush.island.khmelov.api.view.View;
+import com.javarush.island.khmelov.config.CorridorSetting;
+import com.javarush.island.khmelov.config.IslandSetting;
+import com.javarush.island.khmelov.config.Setting;
+import com.javarush.island.khmelov.entity.map.GameMap;
+import com.javarush.island.khmelov.repository.EntityCreator;
+import com.javarush.island.khmelov.repository.GameMapCreator;
+import com.javarush.island.khmelov.services.Archipelago;
+import com.javarush.island.khmelov.services.Corridor;
+import com.javarush.island.khmelov.util.Rnd;
+import com.javarush.island.khmelov.view.ColorConsoleView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the islands of setting.yaml {@code archipelago} joined by its {@code corridors}.
+ */
+public class ArchipelagoRunner {
+    public static void main(String[] args) {
+        Setting setting = Setting.get();
+        Rnd.seed(setting.getSeed());
+        Initialization entityFactory = new EntityCreator();
+        GameMapCreator gameMapCreator = new GameMapCreator(entityFactory);
+        List<Archipelago.Island> islands = new ArrayList<>();
+        List<View> views = new ArrayList<>();
+        List<IslandSetting> islandSettings = new ArrayList<>(setting.getArchipelago());
+        if (islandSettings.isEmpty()) {
+            IslandSetting single = new IslandSetting();
+            single.setName("island");
+            single.setRows(setting.getRows());
+            single.setCols(setting.getCols());
+            islandSettings.add(single);
+        }
+        for (IslandSetting islandSetting : islandSettings) {
+            GameMap gameMap = gameMapCreator.createRandomFilledGameMap(islandSetting.getRows(), islandSetting.getCols(), false);
+            islands.add(new Archipelago.Island(islandSetting.getName(), gameMap, entityFactory.getAllPrototypes()));
+            views.add(new ColorConsoleView(gameMap));
+        }
+        List<Corridor> corridors = new ArrayList<>();
+        for (CorridorSetting corridor : setting.getCorridors()) {
+            corridors.add(new Corridor(corridor.getFrom(), corridor.getTo(), corridor.getPercent(), corridor.getCapacity()));
+        }
+        int parallelism = setting.getParallelism() > 0
+                ? setting.getParallelism()
+                : Math.max(1, Math.min(islands.size(), Runtime.getRuntime().availableProcessors()));
+        Archipelago archipelago = new Archipelago(islands, corridors, parallelism);
+
+        ScheduledExecutorService mainPool = Executors.newSingleThreadScheduledExecutor();
+        mainPool.scheduleWithFixedDelay(() -> {
+            try {
+                archipelago.tick();
+                for (int i = 0; i < islands.size(); i++) {
+                    System.out.print(islands.get(i).getName() + ": " + views.get(i).showStatistics());
+                }
+                if (setting.isShowMetrics()) {
+                    System.out.println(archipelago.report());
+                }
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                mainPool.shutdown();
+            }
+        }, setting.getPeriod(), setting.getPeriod(), TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            mainPool.shutdown();
+            archipelago.close();
+        }));
+    }
+}
@@ -7,11 +7,13 @@ import com.javarush.island.khmelov.repository.EntityCreator;
 import com.javarush.island.khmelov.api.init.Initialization;
 import com.javarush.island.khmelov.repository.GameMapCreator;
 import com.javarush.island.khmelov.services.GameWorker;
+import com.javarush.island.khmelov.util.Rnd;
 import com.javarush.island.khmelov.view.ColorConsoleView;
 import com.javarush.island.khmelov.api.view.View;
 
 public class ConsoleRunner {
     public static void main(String[] args) {
+        Rnd.seed(Setting.get().getSeed());
         Initialization entityFactory = new EntityCreator();
         GameMapCreator gameMapCreator = new GameMapCreator(entityFactory);
         int rows = Setting.get().getRows();
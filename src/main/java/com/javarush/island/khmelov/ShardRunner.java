@@ -0,0 +1,37 @@
+package com.javarush.island.khmelov;
+
+import com.javarush.island.khmelov.api.init.Initialization;
+import com.javarush.island.khmelov.api.view.View;
+import com.javarush.island.khmelov.config.Setting;
+import com.javarush.island.khmelov.entity.Game;
+import com.javarush.island.khmelov.entity.map.GameMap;
+import com.javarush.island.khmelov.entity.map.ShardBand;
+import com.javarush.island.khmelov.repository.EntityCreator;
+import com.javarush.island.khmelov.repository.GameMapCreator;
+import com.javarush.island.khmelov.services.GameWorker;
+import com.javarush.island.khmelov.util.Rnd;
+import com.javarush.island.khmelov.view.ColorConsoleView;
+
+/**
+ * Runs one shard of the island: {@code ShardRunner <shard>} for every shard 0..shards-1
+ * (setting.yaml {@code shards}), each in its own process on this host.
+ */
+public class ShardRunner {
+    public static void main(String[] args) {
+        Setting setting = Setting.get();
+        int shard = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        int shards = Math.max(1, setting.getShards());
+        //every shard has its own stream, the same for every run with this seed
+        Rnd.seed(setting.getSeed() == 0 ? 0 : setting.getSeed() + shard);
+        Initialization entityFactory = new EntityCreator();
+        ShardBand band = new ShardBand(shard, shards, setting.getRows(),
+                ShardBand.halo(entityFactory.getAllPrototypes()));
+        GameMapCreator gameMapCreator = new GameMapCreator(entityFactory);
+        GameMap gameMap = gameMapCreator.createRandomFilledGameMap(band.getLocalRows(), setting.getCols(), false);
+        band.markGhostRows(gameMap);
+        View view = new ColorConsoleView(gameMap);
+        Game game = new Game(gameMap, entityFactory, view);
+        GameWorker gameWorker = new GameWorker(game, band);
+        gameWorker.start();
+    }
+}
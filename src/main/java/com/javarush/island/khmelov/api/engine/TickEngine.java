@@ -0,0 +1,23 @@
+package com.javarush.island.khmelov.api.engine;
+
+public interface TickEngine extends AutoCloseable {
+
+    void tick();
+
+    default int getParallelism() {
+        return 1;
+    }
+
+    //called between ticks only
+    default void setParallelism(int parallelism) {
+    }
+
+    //load metrics of the last tick, empty when the engine does not collect them
+    default String report() {
+        return "";
+    }
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,16 @@
+package com.javarush.island.khmelov.config;
+
+import lombok.Getter;
+import lombok.Setter;
+
+//one-way migration route from the east edge of one island to the west edge of another
+@Getter
+@Setter
+public class CorridorSetting {
+    private String from;
+    private String to;
+    //chance per tick that an animal on the east edge takes the corridor
+    private int percent = Default.CORRIDOR_PERCENT;
+    //migrants on the way at most, rounded up to a power of two
+    private int capacity = Default.CORRIDOR_CAPACITY;
+}
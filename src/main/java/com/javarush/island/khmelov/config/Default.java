@@ -12,6 +12,32 @@ public class Default {
     public static final int CONSOLE_CELL_WITH = 3;
     public static final int PERCENT_ANIMAL_SLIM = 4;
     public static final int PERCENT_PLANT_GROW = 15;
+    public static final String ENGINE = "species";
+    public static final int TILE_SIZE = 8;
+    public static final String CONCURRENCY = "lock";
+    public static final int LOCK_STRIPES = 256;
+    public static final boolean SHOW_METRICS = false;
+    //skip cells without work (no animals, only grown plants)
+    public static final boolean ACTIVE_CELLS = true;
+    //what to do when a tick overruns the period (see TickPacer)
+    public static final String PACING = "stretch";
+    //random seed, 0 - new game every run
+    public static final long SEED = 0;
+    //level of detail: organisms inside the focus region, aggregates elsewhere; 0 rows - all in detail
+    public static final int FOCUS_ROW = 0;
+    public static final int FOCUS_COL = 0;
+    public static final int FOCUS_ROWS = 0;
+    public static final int FOCUS_COLS = 0;
+    //processes sharing the island by rows (ShardRunner), shard i listens on SHARD_PORT + i
+    public static final int SHARDS = 1;
+    public static final int SHARD_PORT = 47100;
+    //archipelago corridors (CorridorSetting)
+    public static final int CORRIDOR_PERCENT = 5;
+    public static final int CORRIDOR_CAPACITY = 1024;
+    //0 - tune the worker count while running
+    public static final int PARALLELISM = 0;
+    //fused engine: species processed first in a cell (others follow in prototype order)
+    public static final String[] SPECIES_ORDER = {"Wolf", "Bear"};
     @JsonIgnore
     static final String[] names = {
             "Wolf", "Boa", "Fox", "Bear", "Eagle",
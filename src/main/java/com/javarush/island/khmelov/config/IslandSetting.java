@@ -0,0 +1,13 @@
+package com.javarush.island.khmelov.config;
+
+import lombok.Getter;
+import lombok.Setter;
+
+//one island of the archipelago (setting.yaml archipelago), other settings are shared
+@Getter
+@Setter
+public class IslandSetting {
+    private String name;
+    private int rows = Default.ROWS;
+    private int cols = Default.COLS;
+}
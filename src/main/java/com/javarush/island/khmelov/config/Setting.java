@@ -19,7 +19,9 @@ import lombok.Setter;
 import lombok.SneakyThrows;
 
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -62,13 +64,38 @@ public class Setting {
     private int consoleCellWith;
     private int percentAnimalSlim;
     private int percentPlantGrow;
+    private String engine;
+    private int tileSize;
+    private List<String> speciesOrder = new ArrayList<>();
+    private String concurrency;
+    private int lockStripes;
+    private boolean showMetrics;
+    private int parallelism;
+    private boolean activeCells;
+    private String pacing;
+    private long seed;
+    private int focusRow;
+    private int focusCol;
+    private int focusRows;
+    private int focusCols;
+    private int shards;
+    private int shardPort;
+    private List<IslandSetting> archipelago = new ArrayList<>();
+    private List<CorridorSetting> corridors = new ArrayList<>();
     @Getter(AccessLevel.PROTECTED)
     private Map<String, Map<String, Integer>> foodMap = new LinkedHashMap<>();
+    @Getter(AccessLevel.PROTECTED)
+    private Map<String, Integer> updateInterval = new LinkedHashMap<>();
 
     public Map<String, Integer> getFoodMap(String keyName) {
         this.foodMap.putIfAbsent(keyName, new LinkedHashMap<>());
         return foodMap.get(keyName);
     }
+
+    //ticks between updates of a species, 1 if not configured
+    public int getUpdateInterval(String keyName) {
+        return Math.max(1, updateInterval.getOrDefault(keyName, 1));
+    }
     //=============================== /DATA ========================================
 
     //================================ INIT ========================================
@@ -89,6 +116,22 @@ public class Setting {
         consoleCellWith = Default.CONSOLE_CELL_WITH;
         percentAnimalSlim = Default.PERCENT_ANIMAL_SLIM;
         percentPlantGrow = Default.PERCENT_PLANT_GROW;
+        engine = Default.ENGINE;
+        tileSize = Default.TILE_SIZE;
+        speciesOrder = new ArrayList<>(List.of(Default.SPECIES_ORDER));
+        concurrency = Default.CONCURRENCY;
+        lockStripes = Default.LOCK_STRIPES;
+        showMetrics = Default.SHOW_METRICS;
+        parallelism = Default.PARALLELISM;
+        activeCells = Default.ACTIVE_CELLS;
+        pacing = Default.PACING;
+        seed = Default.SEED;
+        focusRow = Default.FOCUS_ROW;
+        focusCol = Default.FOCUS_COL;
+        focusRows = Default.FOCUS_ROWS;
+        focusCols = Default.FOCUS_COLS;
+        shards = Default.SHARDS;
+        shardPort = Default.SHARD_PORT;
         for (int i = 0, n = Default.names.length; i < n; i++) {
             String key = Default.names[i];
             this.foodMap.putIfAbsent(key, new LinkedHashMap<>());
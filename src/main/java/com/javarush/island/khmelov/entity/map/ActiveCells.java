@@ -0,0 +1,114 @@
+package com.javarush.island.khmelov.entity.map;
+
+import com.javarush.island.khmelov.entity.organizm.Limit;
+import com.javarush.island.khmelov.entity.organizm.Organisms;
+import com.javarush.island.khmelov.entity.organizm.animals.Animal;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Cells that have work in the current tick: animals, growing plants, or something arrived last tick.
+ * Organisms wake a cell when they move or spawn into it; a cell falls asleep when it is
+ * empty or holds only grown plants and no free place. Engines iterate this set only,
+ * so a sparse island costs as much as its activity, not its area.
+ * Ghost cells of a shard ({@link ShardBand}) are never active.
+ */
+public class ActiveCells {
+
+    private static final Comparator<Cell> MAP_ORDER =
+            Comparator.comparingInt(Cell::getRow).thenComparingInt(Cell::getCol);
+
+    private final GameMap gameMap;
+    private final Queue<Cell> woken = new ConcurrentLinkedQueue<>();
+    //null until first use: everything is active at start
+    private volatile List<Cell> active;
+
+    public ActiveCells(GameMap gameMap) {
+        this.gameMap = gameMap;
+    }
+
+    //called by Cell.wake() once per tick and cell
+    void wake(Cell cell) {
+        woken.add(cell);
+    }
+
+    public List<Cell> getCells() {
+        if (active == null) {
+            active = allCells();
+        }
+        return active;
+    }
+
+    /**
+     * Builds the set for the next tick. Must be called between ticks.
+     */
+    public List<Cell> nextTick() {
+        Set<Cell> next = new LinkedHashSet<>();
+        for (Cell cell : getCells()) {
+            if (hasWork(cell)) {
+                next.add(cell);
+            }
+        }
+        Cell cell;
+        while ((cell = woken.poll()) != null) {
+            cell.clearWoken();
+            if (!cell.isGhost()) {
+                next.add(cell);
+            }
+        }
+        List<Cell> ordered = new ArrayList<>(next);
+        ordered.sort(MAP_ORDER);
+        active = ordered;
+        return active;
+    }
+
+    //for engines that track changed cells themselves instead of calling nextTick
+    public void drainWoken(Consumer<Cell> action) {
+        Cell cell;
+        while ((cell = woken.poll()) != null) {
+            cell.clearWoken();
+            action.accept(cell);
+        }
+    }
+
+    public int size() {
+        return getCells().size();
+    }
+
+    private List<Cell> allCells() {
+        List<Cell> cells = new ArrayList<>();
+        for (Cell[] row : gameMap.getCells()) {
+            for (Cell cell : row) {
+                if (!cell.isGhost()) {
+                    cells.add(cell);
+                }
+            }
+        }
+        return cells;
+    }
+
+    static boolean hasWork(Cell cell) {
+        ResidentMap residents = cell.getResidents();
+        for (int id = 0; id < residents.size(); id++) {
+            Organisms organisms = residents.get(id);
+            if (!organisms.isEmpty() && !isIdle(organisms)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //animals always act; plants idle when the cell is full and all of them are grown up
+    public static boolean isIdle(Organisms organisms) {
+        Limit limit = organisms.getLimit();
+        return organisms.size() >= limit.getMaxCountInCell()
+                && organisms.stream().allMatch(o -> !(o instanceof Animal) && o.getWeight() >= limit.getMaxWeight());
+    }
+}
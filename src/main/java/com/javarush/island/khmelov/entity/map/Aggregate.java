@@ -0,0 +1,61 @@
+package com.javarush.island.khmelov.entity.map;
+
+import com.javarush.island.khmelov.config.Setting;
+import com.javarush.island.khmelov.entity.organizm.Limit;
+
+/**
+ * Cell contents outside the focus region: count and total weight per species instead of organisms.
+ * Counts are fractional, they become whole organisms again when the cell enters the focus.
+ * Species indexes follow {@link Setting#PROTOTYPES}.
+ */
+public class Aggregate {
+
+    private final double[] count = new double[Setting.PROTOTYPES.length];
+    private final double[] biomass = new double[Setting.PROTOTYPES.length];
+
+    public int species() {
+        return count.length;
+    }
+
+    public double getCount(int species) {
+        return count[species];
+    }
+
+    public double getBiomass(int species) {
+        return biomass[species];
+    }
+
+    public double getMeanWeight(int species) {
+        return count[species] > 0 ? biomass[species] / count[species] : 0;
+    }
+
+    public void set(int species, double count, double biomass) {
+        if (count <= 0 || biomass <= 0) {
+            count = 0;
+            biomass = 0;
+        }
+        this.count[species] = count;
+        this.biomass[species] = biomass;
+    }
+
+    public void add(int species, double count, double biomass) {
+        set(species, this.count[species] + count, this.biomass[species] + biomass);
+    }
+
+    public boolean isEmpty() {
+        for (double c : count) {
+            if (c > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //same measure as Organisms.calculateSize
+    public double calculateSize(int species) {
+        Limit limit = Setting.PROTOTYPES[species].getLimit();
+        return limit.getFlockSize() > 1
+                ? biomass[species] / limit.getMaxWeight() * limit.getFlockSize()
+                : count[species];
+    }
+}
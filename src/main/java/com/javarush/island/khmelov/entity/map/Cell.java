@@ -1,26 +1,93 @@
 package com.javarush.island.khmelov.entity.map;
 
 import com.javarush.island.khmelov.entity.organizm.Organism;
+import com.javarush.island.khmelov.entity.organizm.Organisms;
 import com.javarush.island.khmelov.util.Rnd;
 import lombok.Getter;
+import lombok.Setter;
 
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.random.RandomGenerator;
 import java.util.stream.Collectors;
 
 public class Cell {
 
+    private static final AtomicInteger indexCounter = new AtomicInteger();
+    private static final AtomicLongFieldUpdater<Cell> VERSION =
+            AtomicLongFieldUpdater.newUpdater(Cell.class, "version");
+    private static final AtomicIntegerFieldUpdater<Cell> WOKEN =
+            AtomicIntegerFieldUpdater.newUpdater(Cell.class, "woken");
+
     private final List<Cell> nextCell = new ArrayList<>();
     @Getter
-    private final Lock lock = new ReentrantLock(true);
+    private final int index = indexCounter.getAndIncrement();
     @Getter
     private final ResidentMap residents = new ResidentMap();
+    //own stream of a seeded game (Rnd.forCell), null - unseeded
+    @Getter
+    private final RandomGenerator random = Rnd.forCell(index);
+    //version stamp for OptimisticCellGuard, odd while a commit is in progress
+    @Getter
+    private volatile long version;
+    //position and active set are known after updateNextCell
+    @Getter
+    private int row;
+    @Getter
+    private int col;
+    private ActiveCells activeCells;
+    private GameMap map;
+    //1 while the cell is queued in activeCells for the next tick
+    private volatile int woken;
+    //counts instead of organisms outside the focus region (LodEngine), null - full detail
+    @Getter
+    @Setter
+    private Aggregate aggregate;
+    //mirror of a row owned by another shard (ShardEngine): never active, residents only fill places
+    @Getter
+    @Setter
+    private boolean ghost;
+
+    boolean casVersion(long expect, long update) {
+        return VERSION.compareAndSet(this, expect, update);
+    }
+
+    void setVersion(long version) {
+        this.version = version;
+    }
+
+    //guard of the map, chosen by its engine
+    public CellGuard getGuard() {
+        return map.getGuard();
+    }
+
+    //striped lock shared with other cells, see CellLockManager
+    public Lock getLock() {
+        return CellLockManager.get().lockFor(this);
+    }
+
+    //something arrived: the cell works in the next tick
+    public void wake() {
+        if (activeCells != null && woken == 0 && WOKEN.compareAndSet(this, 0, 1)) {
+            activeCells.wake(this);
+        }
+    }
+
+    void clearWoken() {
+        woken = 0;
+    }
 
     public void updateNextCell(GameMap map, int row, int col) {
+        this.row = row;
+        this.col = col;
+        this.activeCells = map.getActiveCells();
+        this.map = map;
         Cell[][] cells = map.getCells();
         if (row > 0) nextCell.add(cells[row - 1][col]);
         if (col > 0) nextCell.add(cells[row][col - 1]);
@@ -0,0 +1,39 @@
+package com.javarush.island.khmelov.entity.map;
+
+import com.javarush.island.khmelov.config.Setting;
+
+import java.util.function.Supplier;
+
+/**
+ * Concurrency control for cell changes. A change is split into a plan (reads only,
+ * returns {@code null} when there is nothing to do) and a commit (writes only),
+ * so the same code runs under locks or as an optimistic transaction.
+ */
+public interface CellGuard {
+
+    String LOCK = "lock";
+    String OPTIMISTIC = "optimistic";
+    //single-threaded engine only
+    String NONE = "none";
+
+    static CellGuard get() {
+        String concurrency = Setting.get().getConcurrency();
+        if (OPTIMISTIC.equals(concurrency)) {
+            return OptimisticCellGuard.get();
+        }
+        return NONE.equals(concurrency) ? SequentialCellGuard.get() : CellLockManager.get();
+    }
+
+    boolean execute(Cell cell, Supplier<Commit> plan);
+
+    boolean execute(Cell first, Cell second, Supplier<Commit> plan);
+
+    <T> T read(Cell cell, Supplier<T> reader);
+
+    String report();
+
+    @FunctionalInterface
+    interface Commit {
+        boolean apply();
+    }
+}
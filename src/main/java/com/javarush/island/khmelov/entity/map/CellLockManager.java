@@ -0,0 +1,153 @@
+package com.javarush.island.khmelov.entity.map;
+
+import com.javarush.island.khmelov.config.Setting;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Fixed table of non-fair locks shared by all cells (cell index -> stripe).
+ * Two-cell operations take stripes in index order, the second one by try-lock
+ * with randomized backoff, so they never deadlock and rarely convoy.
+ */
+public class CellLockManager implements CellGuard {
+
+    private static final int MAX_TRY_ATTEMPTS = 16;
+    private static final long MAX_BACKOFF_NANOS = 50_000;
+
+    private static final CellLockManager INSTANCE = new CellLockManager(Setting.get().getLockStripes());
+
+    public static CellLockManager get() {
+        return INSTANCE;
+    }
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder contended = new LongAdder();
+    private final LongAdder backoffs = new LongAdder();
+
+    public CellLockManager(int stripeCount) {
+        int size = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+    }
+
+    public int stripeOf(Cell cell) {
+        return cell.getIndex() & mask;
+    }
+
+    public Lock lockFor(Cell cell) {
+        return stripes[stripeOf(cell)];
+    }
+
+    public boolean inLock(Cell cell, BooleanSupplier action) {
+        ReentrantLock lock = stripes[stripeOf(cell)];
+        acquire(lock);
+        try {
+            return action.getAsBoolean();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean inLock(Cell first, Cell second, BooleanSupplier action) {
+        int a = stripeOf(first);
+        int b = stripeOf(second);
+        if (a == b) {
+            return inLock(first, action);
+        }
+        ReentrantLock lower = stripes[Math.min(a, b)];
+        ReentrantLock upper = stripes[Math.max(a, b)];
+        acquireBoth(lower, upper);
+        try {
+            return action.getAsBoolean();
+        } finally {
+            upper.unlock();
+            lower.unlock();
+        }
+    }
+
+    @Override
+    public boolean execute(Cell cell, Supplier<Commit> plan) {
+        return inLock(cell, () -> commit(plan));
+    }
+
+    @Override
+    public boolean execute(Cell first, Cell second, Supplier<Commit> plan) {
+        return inLock(first, second, () -> commit(plan));
+    }
+
+    @Override
+    public <T> T read(Cell cell, Supplier<T> reader) {
+        ReentrantLock lock = stripes[stripeOf(cell)];
+        acquire(lock);
+        try {
+            return reader.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static boolean commit(Supplier<Commit> plan) {
+        Commit commit = plan.get();
+        return commit != null && commit.apply();
+    }
+
+    private void acquire(ReentrantLock lock) {
+        acquired.increment();
+        if (!lock.tryLock()) {
+            contended.increment();
+            lock.lock();
+        }
+    }
+
+    private void acquireBoth(ReentrantLock lower, ReentrantLock upper) {
+        long backoff = 1_000;
+        for (int attempt = 0; attempt < MAX_TRY_ATTEMPTS; attempt++) {
+            acquire(lower);
+            if (upper.tryLock()) {
+                acquired.increment();
+                return;
+            }
+            lower.unlock();
+            backoffs.increment();
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(backoff));
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_NANOS);
+        }
+        //index order is still deadlock-free, just wait
+        acquire(lower);
+        acquire(upper);
+    }
+
+    public long getAcquired() {
+        return acquired.sum();
+    }
+
+    public long getContended() {
+        return contended.sum();
+    }
+
+    public long getBackoffs() {
+        return backoffs.sum();
+    }
+
+    @Override
+    public String report() {
+        long total = getAcquired();
+        long waits = getContended();
+        double percent = total == 0 ? 0 : 100.0 * waits / total;
+        return String.format(Locale.ROOT, "locks: stripes=%d acquired=%d contended=%d (%.2f%%) backoffs=%d",
+                stripes.length, total, waits, percent, getBackoffs());
+    }
+}
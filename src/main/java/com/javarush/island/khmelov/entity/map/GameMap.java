@@ -6,11 +6,26 @@ import java.util.stream.Collectors;
 
 public class GameMap {
     private final Cell[][] cells;
+    private final ActiveCells activeCells = new ActiveCells(this);
+    //concurrency control of organism changes, resolved once; an engine may replace it before its first tick
+    private CellGuard guard = CellGuard.get();
 
     public GameMap(int rows, int cols) {
         this.cells = new Cell[rows][cols];
     }
 
+    public ActiveCells getActiveCells() {
+        return activeCells;
+    }
+
+    public CellGuard getGuard() {
+        return guard;
+    }
+
+    public void setGuard(CellGuard guard) {
+        this.guard = guard;
+    }
+
     public Cell[][] getCells() {
         return cells;
     }
@@ -0,0 +1,153 @@
+package com.javarush.island.khmelov.entity.map;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Optimistic transactions over cell versions (seqlock style).
+ * Even version - cell is stable, odd version - a commit is in progress.
+ * The plan runs without locks; the commit starts with a CAS of the versions read
+ * by the plan, so a concurrent change is detected and the transaction is retried.
+ */
+public class OptimisticCellGuard implements CellGuard {
+
+    private static final int MAX_RETRIES = 64;
+    private static final Commit CONFLICT = () -> false;
+
+    private static final OptimisticCellGuard INSTANCE = new OptimisticCellGuard();
+
+    public static OptimisticCellGuard get() {
+        return INSTANCE;
+    }
+
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder aborts = new LongAdder();
+
+    @Override
+    public boolean execute(Cell cell, Supplier<Commit> plan) {
+        for (int attempt = 0; attempt < MAX_RETRIES; attempt++) {
+            long stamp = stableVersion(cell);
+            Commit commit = tryPlan(plan, () -> cell.getVersion() == stamp);
+            if (commit == CONFLICT) {
+                retries.increment();
+                continue;
+            }
+            if (commit == null) {
+                if (cell.getVersion() == stamp) {
+                    return false;
+                }
+            } else if (cell.casVersion(stamp, stamp + 1)) {
+                try {
+                    commits.increment();
+                    return commit.apply();
+                } finally {
+                    cell.setVersion(stamp + 2);
+                }
+            }
+            retries.increment();
+        }
+        aborts.increment();
+        return false;
+    }
+
+    @Override
+    public boolean execute(Cell first, Cell second, Supplier<Commit> plan) {
+        if (first == second) {
+            return execute(first, plan);
+        }
+        //commit order by index, same as lock order
+        Cell lower = first.getIndex() < second.getIndex() ? first : second;
+        Cell upper = lower == first ? second : first;
+        for (int attempt = 0; attempt < MAX_RETRIES; attempt++) {
+            long lowerStamp = stableVersion(lower);
+            long upperStamp = stableVersion(upper);
+            Commit commit = tryPlan(plan, () -> lower.getVersion() == lowerStamp && upper.getVersion() == upperStamp);
+            if (commit == CONFLICT) {
+                retries.increment();
+                continue;
+            }
+            if (commit == null) {
+                if (lower.getVersion() == lowerStamp && upper.getVersion() == upperStamp) {
+                    return false;
+                }
+            } else if (lower.casVersion(lowerStamp, lowerStamp + 1)) {
+                if (upper.casVersion(upperStamp, upperStamp + 1)) {
+                    try {
+                        commits.increment();
+                        return commit.apply();
+                    } finally {
+                        upper.setVersion(upperStamp + 2);
+                        lower.setVersion(lowerStamp + 2);
+                    }
+                }
+                //nothing was written, roll back the first stamp
+                lower.setVersion(lowerStamp);
+            }
+            retries.increment();
+        }
+        aborts.increment();
+        return false;
+    }
+
+    @Override
+    public <T> T read(Cell cell, Supplier<T> reader) {
+        for (int attempt = 0; ; attempt++) {
+            long stamp = stableVersion(cell);
+            try {
+                T value = reader.get();
+                if (cell.getVersion() == stamp) {
+                    return value;
+                }
+            } catch (RuntimeException e) {
+                if (cell.getVersion() == stamp) {
+                    throw e;
+                }
+                //torn read of a collection under commit, try again
+            }
+            retries.increment();
+            if (attempt >= MAX_RETRIES) {
+                Thread.yield();
+            }
+        }
+    }
+
+    private Commit tryPlan(Supplier<Commit> plan, BooleanSupplier unchanged) {
+        try {
+            return plan.get();
+        } catch (RuntimeException e) {
+            if (unchanged.getAsBoolean()) {
+                throw e;
+            }
+            //torn read of a collection under commit
+            return CONFLICT;
+        }
+    }
+
+    private long stableVersion(Cell cell) {
+        long version;
+        while (((version = cell.getVersion()) & 1) != 0) {
+            Thread.onSpinWait();
+        }
+        return version;
+    }
+
+    public long getCommits() {
+        return commits.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    public long getAborts() {
+        return aborts.sum();
+    }
+
+    @Override
+    public String report() {
+        return String.format("optimistic: commits=%d retries=%d aborts=%d",
+                getCommits(), getRetries(), getAborts());
+    }
+}
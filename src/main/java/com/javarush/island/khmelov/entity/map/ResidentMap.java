@@ -1,42 +1,52 @@
 package com.javarush.island.khmelov.entity.map;
 
 import com.javarush.island.khmelov.entity.organizm.Organisms;
-import com.javarush.island.khmelov.util.Rnd;
+import com.javarush.island.khmelov.entity.organizm.SpeciesRegistry;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.Set;
+import java.util.AbstractList;
+import java.util.List;
 
-public class ResidentMap extends LinkedHashMap<String, Organisms> {
-    private static final int PERCENT_RANDOM_ROTATE = 1;
+/**
+ * Residents of a cell: one {@link Organisms} per species, in an array by
+ * {@link SpeciesRegistry} id. All containers exist from the start, so reads never insert or allocate.
+ */
+public class ResidentMap {
 
-    private void checkNull(Object key) {
-        this.putIfAbsent(key.toString(), new Organisms());
+    private final Organisms[] residents = new Organisms[SpeciesRegistry.size()];
+
+    public ResidentMap() {
+        for (int id = 0; id < residents.length; id++) {
+            residents[id] = new Organisms();
+        }
+    }
+
+    public Organisms get(int speciesId) {
+        return residents[speciesId];
     }
 
-    @Override
-    public Organisms get(Object key) {
-        checkNull(key);
-        return super.get(key);
+    //species that are not on the island have no residents
+    public Organisms get(String type) {
+        int id = SpeciesRegistry.idOf(type);
+        return id < 0 ? Organisms.EMPTY : residents[id];
     }
 
-    @Override
-    public Organisms put(String key, Organisms value) {
-        checkNull(key);
-        return super.put(key, value);
+    public int size() {
+        return residents.length;
     }
 
-    public void randomRotateResidents() {
-        if (size() > 1 && Rnd.get(PERCENT_RANDOM_ROTATE)) {
-            synchronized (this) {
-                Set<Map.Entry<String, Organisms>> entrySet = entrySet();
-                var iterator = entrySet.iterator();
-                if (iterator.hasNext()) {
-                    var organisms = iterator.next();
-                    iterator.remove();
-                    put(organisms.getKey(), organisms.getValue());
-                }
+    //all species in the order of the current tick (SpeciesRegistry.shuffleOrder)
+    public List<Organisms> values() {
+        int[] order = SpeciesRegistry.order();
+        return new AbstractList<>() {
+            @Override
+            public Organisms get(int index) {
+                return residents[order[index]];
             }
-        }
+
+            @Override
+            public int size() {
+                return order.length;
+            }
+        };
     }
 }
@@ -0,0 +1,49 @@
+package com.javarush.island.khmelov.entity.map;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * No concurrency control at all: plan and commit run right away in the calling thread.
+ * Only valid when no two threads touch the same cell at once: a single-threaded engine
+ * ({@code engine: sequential}) or the tile engine, whose tiles of one phase never share a cell.
+ */
+public class SequentialCellGuard implements CellGuard {
+
+    private static final SequentialCellGuard INSTANCE = new SequentialCellGuard();
+
+    public static SequentialCellGuard get() {
+        return INSTANCE;
+    }
+
+    private final LongAdder commits = new LongAdder();
+
+    @Override
+    public boolean execute(Cell cell, Supplier<Commit> plan) {
+        return commit(plan);
+    }
+
+    @Override
+    public boolean execute(Cell first, Cell second, Supplier<Commit> plan) {
+        return commit(plan);
+    }
+
+    @Override
+    public <T> T read(Cell cell, Supplier<T> reader) {
+        return reader.get();
+    }
+
+    private boolean commit(Supplier<Commit> plan) {
+        Commit commit = plan.get();
+        if (commit == null) {
+            return false;
+        }
+        commits.increment();
+        return commit.apply();
+    }
+
+    @Override
+    public String report() {
+        return String.format("locks: none commits=%d", commits.sum());
+    }
+}
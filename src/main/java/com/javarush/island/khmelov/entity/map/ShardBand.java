@@ -0,0 +1,87 @@
+package com.javarush.island.khmelov.entity.map;
+
+import com.javarush.island.khmelov.config.Setting;
+import com.javarush.island.khmelov.entity.organizm.Organism;
+import com.javarush.island.khmelov.exception.GameException;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Rows of the island owned by one shard (process): global rows {@code rowFrom..rowTo}
+ * plus ghost rows mirroring the neighbour shards above and below.
+ * A ghost band is as deep as the longest move, so every move that leaves the band ends in a ghost row.
+ * Local map rows: top ghost rows, own rows, bottom ghost rows.
+ */
+@Getter
+public class ShardBand {
+
+    private final int shard;
+    private final int shards;
+    private final int rowFrom;
+    private final int rowTo;
+    private final int ghostTop;
+    private final int ghostBottom;
+
+    public ShardBand(int shard, int shards, int rows, int halo) {
+        if (shard < 0 || shard >= shards) {
+            throw new GameException("shard " + shard + " is out of 0.." + (shards - 1));
+        }
+        this.shard = shard;
+        this.shards = shards;
+        this.rowFrom = rows * shard / shards;
+        this.rowTo = rows * (shard + 1) / shards;
+        this.ghostTop = shard > 0 ? halo : 0;
+        this.ghostBottom = shard < shards - 1 ? halo : 0;
+        if (rowTo - rowFrom < halo) {
+            throw new GameException("band of " + (rowTo - rowFrom) + " rows is thinner than the halo " + halo);
+        }
+    }
+
+    //longest move of any species in one update
+    public static int halo(List<Organism> prototypes) {
+        return prototypes.stream()
+                .mapToInt(o -> o.getLimit().getMaxSpeed() * Setting.get().getUpdateInterval(o.getType()))
+                .max()
+                .orElse(0);
+    }
+
+    public int getLocalRows() {
+        return ghostTop + rowTo - rowFrom + ghostBottom;
+    }
+
+    public int toLocal(int globalRow) {
+        return globalRow - rowFrom + ghostTop;
+    }
+
+    public int toGlobal(int localRow) {
+        return localRow - ghostTop + rowFrom;
+    }
+
+    public boolean isGhost(int localRow) {
+        return localRow < ghostTop || localRow >= getLocalRows() - ghostBottom;
+    }
+
+    //must be called before an engine sees the map: ghost cells never become active,
+    //and start empty, their organisms belong to the neighbour (the first exchange fills placeholders)
+    public void markGhostRows(GameMap gameMap) {
+        Cell[][] cells = gameMap.getCells();
+        for (int row = 0; row < cells.length; row++) {
+            for (Cell cell : cells[row]) {
+                boolean ghost = isGhost(row);
+                cell.setGhost(ghost);
+                if (ghost) {
+                    ResidentMap residents = cell.getResidents();
+                    for (int id = 0; id < residents.size(); id++) {
+                        residents.get(id).clear();
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "shard " + shard + "/" + shards + " rows " + rowFrom + ".." + rowTo;
+    }
+}
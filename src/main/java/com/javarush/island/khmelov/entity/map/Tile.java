@@ -0,0 +1,35 @@
+package com.javarush.island.khmelov.entity.map;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public class Tile {
+    public static final int COLORS = 4;
+
+    private final int rowFrom;
+    private final int rowTo;
+    private final int colFrom;
+    private final int colTo;
+    //tiles with same color never touch each other (even by corner)
+    private final int color;
+    //work of the last tick in nanos, 0 until the tile was processed once
+    @Setter
+    private volatile long cost;
+    //cells processed in the current tick (all cells, or active ones only)
+    @Setter
+    private volatile List<Cell> cells = List.of();
+
+    public int getCellCount() {
+        return (rowTo - rowFrom) * (colTo - colFrom);
+    }
+
+    @Override
+    public String toString() {
+        return "Tile[" + rowFrom + ".." + rowTo + ", " + colFrom + ".." + colTo + "]#" + color;
+    }
+}
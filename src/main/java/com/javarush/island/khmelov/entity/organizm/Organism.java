@@ -1,12 +1,16 @@
 package com.javarush.island.khmelov.entity.organizm;
 
 import com.javarush.island.khmelov.api.entity.Reproducible;
+import com.javarush.island.khmelov.config.Setting;
 import com.javarush.island.khmelov.entity.map.Cell;
+import com.javarush.island.khmelov.entity.map.ResidentMap;
 import com.javarush.island.khmelov.util.Rnd;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
 @SuppressWarnings("unused")
@@ -31,6 +35,10 @@ public abstract class Organism implements Reproducible, Cloneable {
     private final String icon;
 
     private transient final String letter = type.substring(0, 1);
+    //SpeciesRegistry id, resolved on first use (prototypes exist before the registry)
+    private transient int speciesId = -1;
+    //tick stamp of the last sweep this organism acted in (OrganismWorker), a newborn keeps the parent's
+    private transient long lastTick;
     @Setter
     private double weight;
     private final Limit limit;
@@ -61,39 +69,140 @@ public abstract class Organism implements Reproducible, Cloneable {
 
 
     protected boolean safeDie(Cell target) {
-        //logic
-        return false;
+        return target.getGuard().execute(target, () -> {
+            Organisms organisms = residentsOf(target);
+            return organisms.contains(this) ? () -> organisms.remove(this) : null;
+        });
     }
 
     protected boolean safeChangeWeight(Cell currentCell, int percent) {
-        //logic
-        return false;
+        return currentCell.getGuard().execute(currentCell, () -> {
+            Organisms organisms = residentsOf(currentCell);
+            if (!organisms.contains(this)) {
+                return null;
+            }
+            double maxWeight = getLimit().getMaxWeight();
+            return () -> {
+                weight = Math.min(maxWeight, weight + maxWeight * percent / 100);
+                if (weight <= 0) {
+                    organisms.remove(this);
+                    return false;
+                }
+                return true;
+            };
+        });
     }
 
 
     protected boolean safeMove(Cell source, Cell destination) {
-        //logic
-        return false;
+        if (source == destination) {
+            return false;
+        }
+        return source.getGuard().execute(source, destination, () -> {
+            Organisms from = residentsOf(source);
+            Organisms to = residentsOf(destination);
+            if (from.contains(this) && to.size() < getLimit().getMaxCountInCell()) {
+                return () -> {
+                    from.remove(this);
+                    destination.wake();
+                    return to.add(this);
+                };
+            }
+            return null;
+        });
     }
 
     protected boolean safeAddTo(Cell cell) {
-        //logic
-        return false;
+        return cell.getGuard().execute(cell, () -> {
+            Organisms organisms = residentsOf(cell);
+            if (organisms.size() >= getLimit().getMaxCountInCell()) {
+                return null;
+            }
+            return () -> {
+                cell.wake();
+                return organisms.add(this);
+            };
+        });
     }
 
     protected boolean safePollFrom(Cell cell) {
-        //logic
-        return false;
+        return cell.getGuard().execute(cell, () -> {
+            Organisms organisms = residentsOf(cell);
+            return organisms.contains(this) ? () -> organisms.remove(this) : null;
+        });
     }
 
     protected boolean safeFindFood(Cell currentCell) {
-        //logic
-        return false;
+        return currentCell.getGuard().execute(currentCell, () -> {
+            if (!residentsOf(currentCell).contains(this)) {
+                return null;
+            }
+            double needFood = getNeedFood();
+            List<Organism> foods = new ArrayList<>();
+            List<Double> portions = new ArrayList<>();
+            ResidentMap residents = currentCell.getResidents();
+            int[] prey = SpeciesRegistry.preyOf(getSpeciesId());
+            int[] percent = SpeciesRegistry.preyPercentOf(getSpeciesId());
+            for (int i = 0; i < prey.length; i++) {
+                if (needFood <= 0) {
+                    break;
+                }
+                Organisms candidates = residents.get(prey[i]);
+                if (!candidates.isEmpty() && Rnd.get(percent[i], getUpdateInterval())) {
+                    Organism food = candidates.iterator().next();
+                    double delta = Math.min(food.getWeight(), needFood);
+                    foods.add(food);
+                    portions.add(delta);
+                    needFood -= delta;
+                }
+            }
+            if (foods.isEmpty()) {
+                return null;
+            }
+            return () -> {
+                for (int i = 0; i < foods.size(); i++) {
+                    Organism food = foods.get(i);
+                    double delta = portions.get(i);
+                    weight += delta;
+                    food.weight -= delta;
+                    if (food.weight <= 0) {
+                        residents.get(food.getSpeciesId()).remove(food);
+                    }
+                }
+                return true;
+            };
+        });
+    }
+
+    //false if the organism already acted in this tick: it moved ahead of the sweep
+    public boolean markActed(long stamp) {
+        if (lastTick == stamp) {
+            return false;
+        }
+        lastTick = stamp;
+        return true;
+    }
+
+    public int getSpeciesId() {
+        int id = speciesId;
+        if (id < 0) {
+            speciesId = id = SpeciesRegistry.idOf(type);
+        }
+        return id;
+    }
+
+    //a species updated every n ticks acts for n ticks at once
+    protected int getUpdateInterval() {
+        return Setting.get().getUpdateInterval(type);
+    }
+
+    protected Organisms residentsOf(Cell cell) {
+        return cell.getResidents().get(getSpeciesId());
     }
 
     private double getNeedFood() {
         return Math.min(
-                getLimit().getMaxFood(),
+                getLimit().getMaxFood() * getUpdateInterval(),
                 getLimit().getMaxWeight() - getWeight());
     }
 
@@ -1,5 +1,6 @@
 package com.javarush.island.khmelov.entity.organizm;
 
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Set;
@@ -7,12 +8,23 @@ import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 public class Organisms {
-    private final Set<Organism> organisms = new LinkedHashSet<>();
+    //residents of a species that is not on the island, adding throws
+    public static final Organisms EMPTY = new Organisms(Collections.emptySet());
+
+    private final Set<Organism> organisms;
     private Limit limit;
     private String icon = "?";
 
     private String letter = "?";
 
+    public Organisms() {
+        this(new LinkedHashSet<>());
+    }
+
+    private Organisms(Set<Organism> organisms) {
+        this.organisms = organisms;
+    }
+
     public int size() {
         return organisms.size();
     }
@@ -76,6 +88,10 @@ public class Organisms {
         return organisms.remove(organism);
     }
 
+    public void clear() {
+        organisms.clear();
+    }
+
     public void forEach(Consumer<? super Organism> action) {
         organisms.forEach(action);
     }
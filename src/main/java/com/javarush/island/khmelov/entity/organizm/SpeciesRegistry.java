@@ -0,0 +1,101 @@
+package com.javarush.island.khmelov.entity.organizm;
+
+import com.javarush.island.khmelov.config.Setting;
+import com.javarush.island.khmelov.util.Rnd;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Small integer id per prototype of {@link Setting#PROTOTYPES} (its index there).
+ * Cells keep residents in arrays by this id, and diets are compiled to id tables,
+ * so hot loops neither hash species names nor look them up in maps.
+ */
+public class SpeciesRegistry {
+
+    private static final Organism[] PROTOTYPES = Setting.PROTOTYPES;
+    private static final Map<String, Integer> IDS = new HashMap<>();
+
+    static {
+        for (int id = 0; id < PROTOTYPES.length; id++) {
+            IDS.put(PROTOTYPES[id].getType(), id);
+        }
+    }
+
+    //species order of the current tick, replaced as a whole
+    private static volatile int[] order = identity();
+
+    private SpeciesRegistry() {
+    }
+
+    public static int size() {
+        return PROTOTYPES.length;
+    }
+
+    //-1 for species that are not on the island (foodMap lists more)
+    public static int idOf(String type) {
+        Integer id = IDS.get(type);
+        return id == null ? -1 : id;
+    }
+
+    public static Organism prototype(int id) {
+        return PROTOTYPES[id];
+    }
+
+    public static int[] order() {
+        return order;
+    }
+
+    //new random species order, once per tick before the engine runs
+    public static void shuffleOrder() {
+        int[] next = identity();
+        for (int i = next.length - 1; i > 0; i--) {
+            int j = Rnd.random(0, i + 1);
+            int swap = next[i];
+            next[i] = next[j];
+            next[j] = swap;
+        }
+        order = next;
+    }
+
+    private static int[] identity() {
+        int[] ids = new int[PROTOTYPES.length];
+        for (int id = 0; id < ids.length; id++) {
+            ids[id] = id;
+        }
+        return ids;
+    }
+
+    public static int[] preyOf(int id) {
+        return Diets.PREY[id];
+    }
+
+    public static int[] preyPercentOf(int id) {
+        return Diets.PERCENT[id];
+    }
+
+    //foodMap of setting.yaml as id tables, in foodMap order; built on first use (after settings load)
+    private static class Diets {
+        private static final int[][] PREY = new int[PROTOTYPES.length][];
+        private static final int[][] PERCENT = new int[PROTOTYPES.length][];
+
+        static {
+            for (int id = 0; id < PROTOTYPES.length; id++) {
+                Map<String, Integer> foodMap = Setting.get().getFoodMap(PROTOTYPES[id].getType());
+                int[] prey = new int[foodMap.size()];
+                int[] percent = new int[foodMap.size()];
+                int n = 0;
+                for (Map.Entry<String, Integer> entry : foodMap.entrySet()) {
+                    int preyId = idOf(entry.getKey());
+                    if (preyId >= 0) {
+                        prey[n] = preyId;
+                        percent[n++] = entry.getValue();
+                    }
+                }
+                PREY[id] = Arrays.copyOf(prey, n);
+                PERCENT[id] = Arrays.copyOf(percent, n);
+            }
+        }
+    }
+}
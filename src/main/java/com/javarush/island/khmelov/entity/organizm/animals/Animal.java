@@ -8,6 +8,8 @@ import com.javarush.island.khmelov.entity.map.Cell;
 import com.javarush.island.khmelov.entity.organizm.Limit;
 import com.javarush.island.khmelov.entity.organizm.Organism;
 import com.javarush.island.khmelov.entity.organizm.Organisms;
+import com.javarush.island.khmelov.repository.EntityCreator;
+import com.javarush.island.khmelov.util.Rnd;
 
 public abstract class Animal extends Organism implements Eating, Reproducible, Movable {
 
@@ -17,21 +19,34 @@ public abstract class Animal extends Organism implements Eating, Reproducible, M
 
     @Override
     public boolean eat(Cell currentCell) {
-        //logic
+        if (safeFindFood(currentCell)) {
+            return true;
+        }
+        safeChangeWeight(currentCell, -Setting.get().getPercentAnimalSlim() * getUpdateInterval());
         return false;
     }
 
 
     @Override
     public boolean move(Cell startCell) {
-        //logic
-        return false;
+        int countStep = Rnd.random(0, getLimit().getMaxSpeed() * getUpdateInterval() + 1);
+        if (countStep == 0) {
+            return false;
+        }
+        Cell destination = startCell.getNextCell(countStep);
+        return safeMove(startCell, destination);
     }
 
     @Override
     public boolean spawn(Cell cell) {
-        //logic
-        return false;
+        if (getWeight() < getLimit().getMaxWeight() / 2 || !Rnd.get(EntityCreator.PERCENT_PROBABLY_BORN, getUpdateInterval())) {
+            return false;
+        }
+        boolean hasPair = cell.getGuard().read(cell, () -> {
+            Organisms organisms = residentsOf(cell);
+            return organisms.contains(this) && organisms.size() > 1;
+        });
+        return hasPair && Organism.clone(this).safeAddTo(cell);
     }
 
 
@@ -5,7 +5,7 @@ import com.javarush.island.khmelov.config.Setting;
 import com.javarush.island.khmelov.entity.map.Cell;
 import com.javarush.island.khmelov.entity.organizm.Limit;
 import com.javarush.island.khmelov.entity.organizm.Organism;
-import com.javarush.island.khmelov.entity.organizm.Organisms;
+import com.javarush.island.khmelov.repository.EntityCreator;
 import com.javarush.island.khmelov.util.Rnd;
 
 @OrganismLimitData(name = "Трава", icon = "\uD83E\uDEB4", maxWeight = 1, maxCountInCell = 200, flockSize = 20, maxSpeed = 0, maxFood = 0)
@@ -16,8 +16,14 @@ public class Grass extends Organism {
 
     @Override
     public boolean spawn(Cell cell) {
-        //logic
-        return false;
+        if (!safeChangeWeight(cell, Setting.get().getPercentPlantGrow() * getUpdateInterval())) {
+            return false;
+        }
+        if (getWeight() < getLimit().getMaxWeight() || !Rnd.get(EntityCreator.PERCENT_PROBABLY_BORN, getUpdateInterval())) {
+            return false;
+        }
+        Grass grass = Organism.clone(this);
+        return grass.safeAddTo(cell);
     }
 
 }
@@ -0,0 +1,175 @@
+package com.javarush.island.khmelov.services;
+
+import com.javarush.island.khmelov.api.engine.TickEngine;
+import com.javarush.island.khmelov.entity.map.Cell;
+import com.javarush.island.khmelov.entity.map.GameMap;
+import com.javarush.island.khmelov.entity.map.ResidentMap;
+import com.javarush.island.khmelov.entity.organizm.Organism;
+import com.javarush.island.khmelov.entity.organizm.Organisms;
+import com.javarush.island.khmelov.entity.organizm.animals.Animal;
+import com.javarush.island.khmelov.exception.GameException;
+import com.javarush.island.khmelov.util.Rnd;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Several islands ticking side by side on one worker pool, one task per island and tick.
+ * Islands share nothing but {@link Corridor}s: an island drains its inbound corridors before
+ * its own tick and offers animals from its east edge to the outbound ones after it,
+ * so a tick needs no synchronization between islands apart from the join at its end.
+ * Each island runs a {@link SequentialEngine}: parallelism comes from the islands, not inside them.
+ */
+public class Archipelago implements TickEngine {
+
+    @Getter
+    public static class Island {
+        private final String name;
+        private final GameMap gameMap;
+        private final TickEngine engine;
+        private final List<Corridor> inbound = new ArrayList<>();
+        private final List<Corridor> outbound = new ArrayList<>();
+        private long arrived;
+        private long lost;
+
+        public Island(String name, GameMap gameMap, List<Organism> prototypes) {
+            this.name = name;
+            this.gameMap = gameMap;
+            List<OrganismWorker> workers = prototypes.stream()
+                    .map(o -> new OrganismWorker(o, gameMap))
+                    .toList();
+            this.engine = new SequentialEngine(gameMap, workers);
+        }
+
+        private void tick() {
+            inbound.forEach(corridor -> corridor.drain(this::arrive));
+            engine.tick();
+            outbound.forEach(this::leave);
+        }
+
+        //west edge, same relative height as the exit
+        private void arrive(Corridor.Migrant migrant) {
+            int row = Math.min(gameMap.getRows() - 1, (int) (migrant.row() * gameMap.getRows()));
+            Cell cell = gameMap.getCells()[row][0];
+            Organism organism = migrant.organism();
+            Organisms organisms = cell.getResidents().get(organism.getSpeciesId());
+            if (organisms.size() >= organism.getLimit().getMaxCountInCell()) {
+                lost++;
+                return;
+            }
+            organisms.add(organism);
+            cell.wake();
+            arrived++;
+        }
+
+        private void leave(Corridor corridor) {
+            int rows = gameMap.getRows();
+            int east = gameMap.getCols() - 1;
+            for (int row = 0; row < rows; row++) {
+                double height = (row + 0.5) / rows;
+                Cell cell = gameMap.getCells()[row][east];
+                ResidentMap residents = cell.getResidents();
+                //drawn from the cell stream: which pool thread runs the island does not matter
+                List<Organism> leaving = new ArrayList<>();
+                Rnd.run(cell.getRandom(), () -> {
+                    for (int id = 0; id < residents.size(); id++) {
+                        residents.get(id).stream()
+                                .filter(o -> o instanceof Animal && Rnd.get(corridor.getPercent()))
+                                .forEach(leaving::add);
+                    }
+                });
+                for (Organism organism : leaving) {
+                    if (!corridor.offer(new Corridor.Migrant(organism, height))) {
+                        return;
+                    }
+                    residents.get(organism.getSpeciesId()).remove(organism);
+                }
+            }
+        }
+    }
+
+    private final List<Island> islands;
+    private final List<Corridor> corridors;
+    private final ExecutorService pool;
+    private final int parallelism;
+
+    public Archipelago(List<Island> islands, List<Corridor> corridors, int parallelism) {
+        this.islands = List.copyOf(islands);
+        this.corridors = List.copyOf(corridors);
+        this.parallelism = parallelism;
+        for (Corridor corridor : corridors) {
+            find(corridor.getFrom()).outbound.add(corridor);
+            find(corridor.getTo()).inbound.add(corridor);
+        }
+        this.pool = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "island-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public List<Island> getIslands() {
+        return islands;
+    }
+
+    private Island find(String name) {
+        return islands.stream()
+                .filter(island -> island.name.equals(name))
+                .findFirst()
+                .orElseThrow(() -> new GameException("corridor to unknown island " + name));
+    }
+
+    @Override
+    public void tick() {
+        //what left in the last tick arrives in this one
+        corridors.forEach(Corridor::publish);
+        List<Callable<Void>> tasks = islands.stream()
+                .<Callable<Void>>map(island -> () -> {
+                    island.tick();
+                    return null;
+                })
+                .toList();
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GameException("archipelago tick interrupted", e);
+        } catch (ExecutionException e) {
+            throw new GameException("island tick failed", e.getCause());
+        }
+    }
+
+    @Override
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public String report() {
+        StringBuilder out = new StringBuilder();
+        for (Island island : islands) {
+            out.append(String.format(Locale.ROOT, "island %s: arrived=%d lost=%d%n",
+                    island.name, island.arrived, island.lost));
+        }
+        for (Corridor corridor : corridors) {
+            out.append(String.format(Locale.ROOT, "corridor %s: sent=%d refused=%d%n",
+                    corridor, corridor.getSent(), corridor.getRefused()));
+        }
+        return out.toString().stripTrailing();
+    }
+
+    @Override
+    public void close() {
+        islands.forEach(island -> island.engine.close());
+        pool.shutdownNow();
+    }
+}
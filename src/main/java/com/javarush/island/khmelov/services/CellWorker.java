@@ -0,0 +1,41 @@
+package com.javarush.island.khmelov.services;
+
+import com.javarush.island.khmelov.entity.map.Cell;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Cell-major kernel: all species of one cell are processed while the cell is hot in cache.
+ * Species listed in {@code speciesOrder} go first in that order, the rest keep prototype order.
+ */
+public class CellWorker {
+
+    private final List<OrganismWorker> workers;
+
+    public CellWorker(List<OrganismWorker> workers, List<String> speciesOrder) {
+        List<OrganismWorker> ordered = new ArrayList<>(workers);
+        ordered.sort(Comparator.comparingInt(worker -> rank(speciesOrder, worker.getPrototype().getType())));
+        this.workers = List.copyOf(ordered);
+    }
+
+    private static int rank(List<String> speciesOrder, String type) {
+        int index = speciesOrder.indexOf(type);
+        return index < 0 ? speciesOrder.size() : index;
+    }
+
+    public List<OrganismWorker> getWorkers() {
+        return workers;
+    }
+
+    public void beginTick() {
+        workers.forEach(OrganismWorker::beginTick);
+    }
+
+    public void processCell(Cell cell) {
+        for (OrganismWorker worker : workers) {
+            worker.processOneCell(cell);
+        }
+    }
+}
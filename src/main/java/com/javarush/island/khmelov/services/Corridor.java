@@ -0,0 +1,100 @@
+package com.javarush.island.khmelov.services;
+
+import com.javarush.island.khmelov.entity.organizm.Organism;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * One-way migration route between two islands of an {@link Archipelago}: a bounded
+ * single-producer single-consumer ring, without locks. The source island offers migrants
+ * at the end of its tick, the target island drains them at the start of its tick.
+ * Only migrants published between ticks ({@link #publish()}) are drained, so every migrant
+ * travels exactly one tick, whichever island finishes first.
+ */
+public class Corridor {
+
+    //row is relative to the source island height, 0..1
+    public record Migrant(Organism organism, double row) {
+    }
+
+    private final String from;
+    private final String to;
+    private final int percent;
+    private final Migrant[] ring;
+    private final int mask;
+    //written by the source island only
+    private final AtomicLong tail = new AtomicLong();
+    //written by the target island only
+    private final AtomicLong head = new AtomicLong();
+    //tail at the last tick border
+    private volatile long published;
+
+    private long refused;
+
+    public Corridor(String from, String to, int percent, int capacity) {
+        this.from = from;
+        this.to = to;
+        this.percent = percent;
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.ring = new Migrant[size];
+        this.mask = size - 1;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public int getPercent() {
+        return percent;
+    }
+
+    //source island thread; false when the corridor is full
+    public boolean offer(Migrant migrant) {
+        long t = tail.get();
+        if (t - head.get() >= ring.length) {
+            refused++;
+            return false;
+        }
+        ring[(int) (t & mask)] = migrant;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    //between ticks, no island is running
+    public void publish() {
+        published = tail.get();
+    }
+
+    //target island thread
+    public int drain(Consumer<Migrant> action) {
+        long h = head.get();
+        long limit = published;
+        int count = 0;
+        for (; h < limit; h++, count++) {
+            int slot = (int) (h & mask);
+            Migrant migrant = ring[slot];
+            ring[slot] = null;
+            action.accept(migrant);
+        }
+        head.lazySet(h);
+        return count;
+    }
+
+    public long getSent() {
+        return tail.get();
+    }
+
+    public long getRefused() {
+        return refused;
+    }
+
+    @Override
+    public String toString() {
+        return from + "->" + to;
+    }
+}
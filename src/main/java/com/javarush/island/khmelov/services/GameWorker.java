@@ -1,14 +1,21 @@
 package com.javarush.island.khmelov.services;
 
+import com.javarush.island.khmelov.api.engine.TickEngine;
 import com.javarush.island.khmelov.config.Setting;
 import com.javarush.island.khmelov.entity.Game;
+import com.javarush.island.khmelov.entity.map.CellGuard;
+import com.javarush.island.khmelov.entity.map.GameMap;
+import com.javarush.island.khmelov.entity.map.ShardBand;
 import com.javarush.island.khmelov.api.view.View;
+import com.javarush.island.khmelov.entity.organizm.Organism;
+import com.javarush.island.khmelov.entity.organizm.SpeciesRegistry;
+import com.javarush.island.khmelov.exception.GameException;
+import com.javarush.island.khmelov.util.Rnd;
 import lombok.RequiredArgsConstructor;
-import lombok.SneakyThrows;
 
 import java.util.List;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -17,36 +24,160 @@ public class GameWorker extends Thread {
     public static final int CORE_POOL_SIZE = 4;
     private final Game game;
     private final int PERIOD = Setting.get().getPeriod();
+    //rows of this process when the island is sharded, null - whole island
+    private ShardBand band;
+
+    private volatile ScheduledExecutorService mainPool;
+    private volatile TickEngine engine;
+    private ParallelismController parallelismController;
+    private TickPacer pacer;
+
+    public GameWorker(Game game, ShardBand band) {
+        this(game);
+        this.band = band;
+    }
 
     @Override
     public void run() {
         View view = game.getView();
         view.show();
 
-        @SuppressWarnings("resource")
-        ScheduledExecutorService mainPool = Executors.newScheduledThreadPool(CORE_POOL_SIZE);
-        List<OrganismWorker> workers = game
+        List<Organism> prototypes = game
                 .getEntityFactory()
-                .getAllPrototypes()
+                .getAllPrototypes();
+        List<OrganismWorker> workers = prototypes
                 .stream()
                 .map(o -> new OrganismWorker(o, game.getGameMap()))
                 .toList();
-        mainPool.scheduleWithFixedDelay(() -> runWorkers(view, workers)
-                , PERIOD, PERIOD, TimeUnit.MILLISECONDS);
+        int parallelism = Setting.get().getParallelism();
+        String engineName = Setting.get().getEngine();
+        boolean sequential = SequentialEngine.NAME.equals(engineName) || GillespieEngine.NAME.equals(engineName);
+        boolean tiled = TileEngine.NAME.equals(engineName) || TileEngine.FUSED.equals(engineName);
+        if (!sequential && !tiled && CellGuard.NONE.equals(Setting.get().getConcurrency())) {
+            throw new GameException("concurrency: none needs engine: "
+                    + SequentialEngine.NAME + ", " + GillespieEngine.NAME + " or a tile engine");
+        }
+        //species sweeps share cells, with several threads their interleaving is up to the scheduler
+        if (Rnd.isSeeded() && !sequential && !tiled && parallelism != 1) {
+            throw new GameException("seed needs parallelism: 1 with engine: " + SpeciesEngine.NAME + ", or engine: "
+                    + TileEngine.NAME + ", " + TileEngine.FUSED + ", " + SequentialEngine.NAME + " or " + GillespieEngine.NAME);
+        }
+        if (parallelism <= 0 && !sequential) {
+            GameMap gameMap = game.getGameMap();
+            parallelismController = new ParallelismController(CORE_POOL_SIZE, gameMap.getRows() * gameMap.getCols());
+            parallelism = parallelismController.getDegree();
+        }
+        engine = createEngine(prototypes, workers, parallelism);
+        Setting setting = Setting.get();
+        if (setting.getFocusRows() > 0 && setting.getFocusCols() > 0) {
+            if (GillespieEngine.NAME.equals(engineName)) {
+                throw new GameException("focus region is not supported by engine: " + GillespieEngine.NAME);
+            }
+            LodEngine.Focus focus = new LodEngine.Focus(setting.getFocusRow(), setting.getFocusCol(),
+                    setting.getFocusRows(), setting.getFocusCols());
+            engine = new LodEngine(game.getGameMap(), prototypes, engine, focus);
+        }
+        if (band != null) {
+            if (GillespieEngine.NAME.equals(engineName) || engine instanceof LodEngine) {
+                throw new GameException("sharding works with the tick engines only, without a focus region");
+            }
+            engine = new ShardEngine(game.getGameMap(), prototypes, engine,
+                    band, ShardBand.halo(prototypes), setting.getShardPort());
+        }
+
+        //ticks never overlap, so one scheduler thread is enough
+        mainPool = Executors.newSingleThreadScheduledExecutor();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::finish));
+        pacer = new TickPacer(TickPacer.Policy.of(Setting.get().getPacing()), TimeUnit.MILLISECONDS.toNanos(PERIOD));
+        schedule(view, pacer.start(System.nanoTime()));
+    }
+
+    //each tick schedules the next one, the pacer decides when
+    private void schedule(View view, long delayNanos) {
+        ScheduledExecutorService pool = mainPool;
+        try {
+            if (!pool.isShutdown()) {
+                pool.schedule(() -> runEngine(view), delayNanos, TimeUnit.NANOSECONDS);
+            }
+        } catch (RejectedExecutionException e) {
+            //finish() won the race, nothing to schedule
+        }
+    }
 
+    private TickEngine createEngine(List<Organism> prototypes, List<OrganismWorker> workers, int parallelism) {
+        Setting setting = Setting.get();
+        String name = setting.getEngine();
+        if (SequentialEngine.NAME.equals(name)) {
+            return new SequentialEngine(game.getGameMap(), workers);
+        }
+        if (GillespieEngine.NAME.equals(name)) {
+            return new GillespieEngine(game.getGameMap(), prototypes);
+        }
+        if (TileEngine.NAME.equals(name) || TileEngine.FUSED.equals(name)) {
+            CellWorker cellWorker = new CellWorker(workers, setting.getSpeciesOrder());
+            return new TileEngine(game.getGameMap(), cellWorker, TileEngine.FUSED.equals(name),
+                    prototypes, parallelism, setting.getTileSize());
+        }
+        return new SpeciesEngine(game.getGameMap(), workers, parallelism);
     }
 
-    private void runWorkers(View view, List<OrganismWorker> workers) {
-        ExecutorService servicePool = Executors.newFixedThreadPool(CORE_POOL_SIZE);
-        workers.forEach(servicePool::submit);
-        servicePool.shutdown();
-        awaitPool(view, servicePool);
+    private void runEngine(View view) {
+        try {
+            long start = System.nanoTime();
+            if (pacer.onTickStart(start)) {
+                System.out.println("simulation is falling behind wall time, " + pacer.report(start));
+            }
+            SpeciesRegistry.shuffleOrder();
+            engine.tick();
+            long end = System.nanoTime();
+            long tickNanos = end - start;
+            if (pacer.shouldRender(end)) {
+                view.show();
+            }
+            if (Setting.get().isShowMetrics()) {
+                System.out.println(pacer.report(end));
+                System.out.println(game.getGameMap().getGuard().report());
+                String load = engine.report();
+                if (!load.isEmpty()) {
+                    System.out.println(load);
+                }
+                if (parallelismController != null) {
+                    System.out.println(parallelismController.report());
+                }
+            }
+            tuneParallelism(tickNanos);
+            schedule(view, pacer.nextDelay(System.nanoTime()));
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            new Thread(this::finish).start();
+            throw e;
+        }
     }
 
-    @SneakyThrows
-    private void awaitPool(View view, ExecutorService servicePool) {
-        if (servicePool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS)) {
-            view.show();
+    private void tuneParallelism(long tickNanos) {
+        if (parallelismController == null) {
+            return;
+        }
+        int degree = parallelismController.onTick(tickNanos);
+        if (degree != engine.getParallelism()) {
+            System.out.println("threads " + engine.getParallelism() + " -> " + degree
+                    + ", " + parallelismController.report());
+            engine.setParallelism(degree);
+        }
+    }
+
+    public void finish() {
+        ScheduledExecutorService pool = mainPool;
+        if (pool == null || pool.isShutdown()) {
+            return;
+        }
+        pool.shutdown();
+        try {
+            if (pool.awaitTermination(PERIOD * 10L, TimeUnit.MILLISECONDS)) {
+                engine.close();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 }
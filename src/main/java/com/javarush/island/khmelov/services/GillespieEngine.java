@@ -0,0 +1,172 @@
+package com.javarush.island.khmelov.services;
+
+import com.javarush.island.khmelov.api.engine.TickEngine;
+import com.javarush.island.khmelov.config.Setting;
+import com.javarush.island.khmelov.entity.map.ActiveCells;
+import com.javarush.island.khmelov.entity.map.Cell;
+import com.javarush.island.khmelov.entity.map.GameMap;
+import com.javarush.island.khmelov.entity.organizm.Organism;
+import com.javarush.island.khmelov.entity.organizm.Organisms;
+import com.javarush.island.khmelov.entity.organizm.animals.Animal;
+import com.javarush.island.khmelov.exception.GameException;
+import com.javarush.island.khmelov.util.Rnd;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Continuous-time engine (Gillespie direct method): single organisms eat, move and spawn
+ * as random events instead of everyone acting once per tick.
+ * <ul>
+ *     <li>every organism of a species fires each of its channels at rate 1/updateInterval per tick,
+ *     so with effects scaled by the interval its mean activity equals that of the tick engines;</li>
+ *     <li>foodMap and birth probabilities are rolled when the event fires (thinning),
+ *     a failed hunt slims the animal and starvation kills it as in {@link Animal#eat};</li>
+ *     <li>limits switch channels off: no move with maxSpeed 0, no birth without a pair,
+ *     nothing for plants in a full cell of grown plants.</li>
+ * </ul>
+ * Rates are summed per cell in a {@link RateTree}; an event costs O(log cells) to pick
+ * and updates only the cells it changed (the cell itself and the cells it woke),
+ * so quiet parts of the map cost nothing. One call of {@link #tick()} advances
+ * simulated time by one tick, the waiting time is exponential and memoryless,
+ * so cutting it at the tick border is exact. Single-threaded like {@link SequentialEngine}.
+ */
+public class GillespieEngine implements TickEngine {
+
+    public static final String NAME = "gillespie";
+
+    private static final int EAT = 0;
+    private static final int MOVE = 1;
+    private static final int SPAWN = 2;
+    private static final int CHANNELS = 3;
+
+    private final GameMap gameMap;
+    private final Cell[] cells;
+    private final List<Organism> prototypes;
+    private final double[] speciesRate;
+    //cell index -> rate of species * CHANNELS + channel
+    private final double[][] channelRates;
+    private final RateTree tree;
+
+    private long events;
+    private long lastEvents;
+    private double lastTotal;
+
+    public GillespieEngine(GameMap gameMap, List<Organism> prototypes) {
+        this.gameMap = gameMap;
+        this.prototypes = List.copyOf(prototypes);
+        int rows = gameMap.getRows();
+        int cols = gameMap.getCols();
+        this.cells = new Cell[rows * cols];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                cells[row * cols + col] = gameMap.getCells()[row][col];
+            }
+        }
+        this.speciesRate = new double[this.prototypes.size()];
+        for (int i = 0; i < speciesRate.length; i++) {
+            speciesRate[i] = 1.0 / Setting.get().getUpdateInterval(this.prototypes.get(i).getType());
+        }
+        this.channelRates = new double[cells.length][speciesRate.length * CHANNELS];
+        this.tree = new RateTree(cells.length);
+        //everything placed before the start is counted by the full refresh
+        gameMap.getActiveCells().drainWoken(cell -> {
+        });
+        for (int i = 0; i < cells.length; i++) {
+            refresh(i);
+        }
+    }
+
+    @Override
+    public void tick() {
+        long before = events;
+        double time = 0;
+        while (true) {
+            double total = tree.total();
+            if (total <= 0) {
+                break;
+            }
+            time -= Math.log(1 - Rnd.random(0.0, 1.0)) / total;
+            if (time >= 1) {
+                break;
+            }
+            fire(Rnd.random(0.0, total));
+        }
+        lastEvents = events - before;
+        lastTotal = tree.total();
+    }
+
+    private void fire(double point) {
+        int index = tree.find(point);
+        if (index < 0) {
+            return;
+        }
+        double[] rates = channelRates[index];
+        double rest = Rnd.random(0.0, tree.get(index));
+        int channel = 0;
+        while (channel < rates.length - 1 && rest >= rates[channel]) {
+            rest -= rates[channel++];
+        }
+        if (rates[channel] <= 0) {
+            return;
+        }
+        Cell cell = cells[index];
+        Organism prototype = prototypes.get(channel / CHANNELS);
+        Organism organism = pick(cell.getResidents().get(prototype.getSpeciesId()));
+        try {
+            switch (channel % CHANNELS) {
+                case EAT -> ((Animal) organism).eat(cell);
+                case MOVE -> ((Animal) organism).move(cell);
+                default -> organism.spawn(cell);
+            }
+        } catch (Exception e) {
+            throw new GameException("incorrect event", e);
+        }
+        events++;
+        refresh(index);
+        gameMap.getActiveCells().drainWoken(this::refresh);
+    }
+
+    private static Organism pick(Organisms organisms) {
+        Iterator<Organism> iterator = organisms.iterator();
+        for (int skip = Rnd.random(0, organisms.size()); skip > 0; skip--) {
+            iterator.next();
+        }
+        return iterator.next();
+    }
+
+    private void refresh(Cell cell) {
+        refresh(cell.getRow() * gameMap.getCols() + cell.getCol());
+    }
+
+    private void refresh(int index) {
+        Cell cell = cells[index];
+        double[] rates = channelRates[index];
+        double total = 0;
+        for (int species = 0; species < speciesRate.length; species++) {
+            Organism prototype = prototypes.get(species);
+            Organisms organisms = cell.getResidents().get(prototype.getSpeciesId());
+            int count = organisms.size();
+            double rate = count * speciesRate[species];
+            int base = species * CHANNELS;
+            if (prototype instanceof Animal) {
+                rates[base + EAT] = rate;
+                rates[base + MOVE] = prototype.getLimit().getMaxSpeed() > 0 ? rate : 0;
+                rates[base + SPAWN] = count > 1 ? rate : 0;
+            } else {
+                rates[base + EAT] = 0;
+                rates[base + MOVE] = 0;
+                rates[base + SPAWN] = count > 0 && !ActiveCells.isIdle(organisms) ? rate : 0;
+            }
+            total += rates[base + EAT] + rates[base + MOVE] + rates[base + SPAWN];
+        }
+        tree.set(index, total);
+    }
+
+    @Override
+    public String report() {
+        return String.format(Locale.ROOT, "gillespie: events last=%d total=%d rate=%.0f/tick",
+                lastEvents, events, lastTotal);
+    }
+}
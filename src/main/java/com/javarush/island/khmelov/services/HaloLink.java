@@ -0,0 +1,163 @@
+package com.javarush.island.khmelov.services;
+
+import com.javarush.island.khmelov.exception.GameException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Socket to a neighbour shard on the local host. Once per tick each side sends one {@link Message}
+ * and reads one: sending runs on its own thread, so two shards that both send first never block
+ * each other on full socket buffers.
+ */
+public class HaloLink implements AutoCloseable {
+
+    private static final long CONNECT_TIMEOUT_MILLIS = 60_000;
+    private static final long RETRY_MILLIS = 100;
+
+    /**
+     * @param summary  counts per row, col and species of the sender's rows next to the receiver
+     * @param migrants organisms that moved into the receiver's rows
+     */
+    public record Message(long tick, int[] summary, List<Migrant> migrants) {
+    }
+
+    //row is global, species is the index in Setting.PROTOTYPES
+    public record Migrant(int row, int col, int species, double weight) {
+    }
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final ExecutorService sender;
+    private Future<?> sending;
+
+    private HaloLink(Socket socket) throws IOException {
+        this.socket = socket;
+        socket.setTcpNoDelay(true);
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        this.sender = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "halo-sender-" + socket.getLocalPort());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    //the neighbour below listens, retries until it is up
+    public static HaloLink connect(int port) {
+        long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT_MILLIS;
+        while (true) {
+            try {
+                return new HaloLink(new Socket(InetAddress.getLoopbackAddress(), port));
+            } catch (ConnectException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new GameException("no shard listens on port " + port, e);
+                }
+                sleep();
+            } catch (IOException e) {
+                throw new GameException("cannot connect to shard on port " + port, e);
+            }
+        }
+    }
+
+    public static HaloLink accept(ServerSocket server) {
+        try {
+            return new HaloLink(server.accept());
+        } catch (IOException e) {
+            throw new GameException("cannot accept shard on port " + server.getLocalPort(), e);
+        }
+    }
+
+    public static ServerSocket listen(int port) {
+        try {
+            return new ServerSocket(port, 1, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            throw new GameException("cannot listen on port " + port, e);
+        }
+    }
+
+    public void send(Message message) {
+        sending = sender.submit(() -> {
+            write(message);
+            return null;
+        });
+    }
+
+    public Message receive() {
+        try {
+            Message message = read();
+            sending.get();
+            return message;
+        } catch (IOException e) {
+            throw new GameException("shard link is broken", e);
+        } catch (ExecutionException e) {
+            throw new GameException("cannot send to shard", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GameException("interrupted while sending to shard", e);
+        }
+    }
+
+    private void write(Message message) throws IOException {
+        out.writeLong(message.tick());
+        out.writeInt(message.summary().length);
+        for (int count : message.summary()) {
+            out.writeInt(count);
+        }
+        out.writeInt(message.migrants().size());
+        for (Migrant migrant : message.migrants()) {
+            out.writeInt(migrant.row());
+            out.writeInt(migrant.col());
+            out.writeInt(migrant.species());
+            out.writeDouble(migrant.weight());
+        }
+        out.flush();
+    }
+
+    private Message read() throws IOException {
+        long tick = in.readLong();
+        int[] summary = new int[in.readInt()];
+        for (int i = 0; i < summary.length; i++) {
+            summary[i] = in.readInt();
+        }
+        int count = in.readInt();
+        List<Migrant> migrants = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            migrants.add(new Migrant(in.readInt(), in.readInt(), in.readInt(), in.readDouble()));
+        }
+        return new Message(tick, summary, migrants);
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(RETRY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GameException("interrupted while connecting shards", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        sender.shutdownNow();
+        try {
+            socket.close();
+        } catch (IOException e) {
+            //closing anyway
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package com.javarush.island.khmelov.services;
+
+import com.javarush.island.khmelov.api.engine.TickEngine;
+import com.javarush.island.khmelov.config.Setting;
+import com.javarush.island.khmelov.entity.map.Aggregate;
+import com.javarush.island.khmelov.entity.map.Cell;
+import com.javarush.island.khmelov.entity.map.GameMap;
+import com.javarush.island.khmelov.entity.map.ShardBand;
+import com.javarush.island.khmelov.entity.organizm.Limit;
+import com.javarush.island.khmelov.entity.organizm.Organism;
+import com.javarush.island.khmelov.entity.organizm.Organisms;
+import com.javarush.island.khmelov.entity.organizm.animals.Animal;
+import com.javarush.island.khmelov.repository.EntityCreator;
+import com.javarush.island.khmelov.util.Rnd;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Level-of-detail engine: organisms inside the focus region are run by the wrapped engine
+ * ({@code Animal.eat/move/spawn}), every other cell keeps an {@link Aggregate}
+ * and is stepped by a mean-field model, in the phases of the tick engines. Like the detailed engines,
+ * a species with {@code updateInterval} n is stepped on every n-th tick only, with the effects of n ticks:
+ * <ul>
+ *     <li>eat - a predator tries the prey of its foodMap in order and catches each with its
+ *     probability p until fed, a predator that caught nothing ({@code prod(1 - p)}) slims as in
+ *     {@code Animal.eat}; weights are taken as spread evenly around the mean, and hungry animals
+ *     lighter than the loss starve and leave the count;</li>
+ *     <li>move - the share {@code speed / (speed + 1)} that would leave the cell spreads evenly
+ *     to the neighbours, into free places only;</li>
+ *     <li>spawn - half-grown animals that meet a pair and grown plants give birth with
+ *     {@link EntityCreator#PERCENT_PROBABLY_BORN}, up to maxCountInCell.</li>
+ * </ul>
+ * Animals that the detailed engine moves out of the focus are folded into the aggregate of their
+ * new cell (only the ring of cells one longest move around the focus is checked);
+ * aggregated animals that move into the focus become organisms with the mean weight.
+ * {@link #setFocus} converts the cells that enter or leave the focus the same way.
+ * <p>
+ * Only aggregates with a count are stepped, so a tick costs the focus, its ring and the occupied
+ * cells outside, not the island. Still as large as the island: the {@code Cell} and {@code Aggregate}
+ * of every cell, the first {@link #setFocus} and whatever the wrapped engine and the view iterate
+ * (all cells with {@code activeCells: false}).
+ * <p>
+ * The mean-field step runs in the scheduler thread after the wrapped engine finished its tick.
+ */
+public class LodEngine implements TickEngine {
+
+    public record Focus(int row, int col, int rows, int cols) {
+        public boolean contains(int row, int col) {
+            return row >= this.row && row < this.row + rows && col >= this.col && col < this.col + cols;
+        }
+    }
+
+    private final GameMap gameMap;
+    private final TickEngine detail;
+    private final List<Organism> prototypes;
+    private final Map<String, Integer> speciesIndex = new HashMap<>();
+    //updateInterval of each species and whether it is stepped in this tick
+    private final int[] intervals;
+    private final boolean[] due;
+    private long tick;
+    //aggregated cells with a count, stepped in map order
+    private final Set<Cell> occupied = new HashSet<>();
+    private final Comparator<Cell> mapOrder = Comparator.comparingInt(this::indexOf);
+    //new arrivals of aggregated cells, applied after all cells moved
+    private final Map<Cell, Aggregate> arrivals = new HashMap<>();
+    //longest move of any species, animals leave the focus no further
+    private final int reach;
+    private Focus focus;
+
+    public LodEngine(GameMap gameMap, List<Organism> prototypes, TickEngine detail, Focus focus) {
+        this.gameMap = gameMap;
+        this.prototypes = List.copyOf(prototypes);
+        this.detail = detail;
+        this.intervals = new int[this.prototypes.size()];
+        this.due = new boolean[this.prototypes.size()];
+        for (int species = 0; species < this.prototypes.size(); species++) {
+            String type = this.prototypes.get(species).getType();
+            speciesIndex.put(type, species);
+            intervals[species] = Setting.get().getUpdateInterval(type);
+        }
+        this.reach = ShardBand.halo(this.prototypes);
+        setFocus(focus);
+    }
+
+    public Focus getFocus() {
+        return focus;
+    }
+
+    /**
+     * Moves the focus region. Must be called between ticks.
+     */
+    public void setFocus(Focus focus) {
+        Focus old = this.focus;
+        this.focus = focus;
+        Consumer<Cell> convert = cell -> {
+            boolean inside = focus.contains(cell.getRow(), cell.getCol());
+            if (inside && cell.getAggregate() != null) {
+                expand(cell);
+            } else if (!inside && cell.getAggregate() == null) {
+                cell.setAggregate(new Aggregate());
+                collapse(cell);
+            }
+        };
+        if (old == null) {
+            forEachCell(new Focus(0, 0, gameMap.getRows(), gameMap.getCols()), convert);
+        } else {
+            //only cells of the old and the new focus change
+            forEachCell(old, convert);
+            forEachCell(focus, convert);
+        }
+    }
+
+    @Override
+    public void tick() {
+        detail.tick();
+        //same schedule as OrganismWorker.beginTick
+        for (int species = 0; species < due.length; species++) {
+            due[species] = tick % intervals[species] == 0;
+        }
+        tick++;
+        //animals that walked out of the focus in this tick
+        forEachCell(new Focus(focus.row() - reach, focus.col() - reach,
+                focus.rows() + 2 * reach, focus.cols() + 2 * reach), cell -> {
+            if (cell.getAggregate() != null) {
+                collapse(cell);
+            }
+        });
+        List<Cell> cells = new ArrayList<>(occupied);
+        cells.sort(mapOrder);
+        for (Cell cell : cells) {
+            Aggregate aggregate = cell.getAggregate();
+            eat(aggregate);
+            move(cell, aggregate);
+        }
+        arrivals.forEach((cell, arrived) -> {
+            for (int species = 0; species < prototypes.size(); species++) {
+                cell.getAggregate().add(species, arrived.getCount(species), arrived.getBiomass(species));
+            }
+            occupied.add(cell);
+        });
+        arrivals.clear();
+        occupied.removeIf(cell -> {
+            Aggregate aggregate = cell.getAggregate();
+            spawn(aggregate);
+            return aggregate.isEmpty();
+        });
+    }
+
+    //organisms -> counts
+    private void collapse(Cell cell) {
+        Aggregate aggregate = cell.getAggregate();
+        for (int species = 0; species < prototypes.size(); species++) {
+            Organisms organisms = cell.getResidents().get(prototypes.get(species).getSpeciesId());
+            if (!organisms.isEmpty()) {
+                double biomass = organisms.stream().mapToDouble(Organism::getWeight).sum();
+                aggregate.add(species, organisms.size(), biomass);
+                organisms.clear();
+            }
+        }
+        if (!aggregate.isEmpty()) {
+            occupied.add(cell);
+        }
+    }
+
+    //counts -> organisms
+    private void expand(Cell cell) {
+        Aggregate aggregate = cell.getAggregate();
+        cell.setAggregate(null);
+        occupied.remove(cell);
+        for (int species = 0; species < prototypes.size(); species++) {
+            materialize(cell, species, aggregate.getCount(species), aggregate.getMeanWeight(species));
+        }
+    }
+
+    private void materialize(Cell cell, int species, double count, double weight) {
+        Organism prototype = prototypes.get(species);
+        Organisms organisms = cell.getResidents().get(prototype.getSpeciesId());
+        int whole = (int) count;
+        if (Rnd.random(0.0, 1.0) < count - whole) {
+            whole++;
+        }
+        int free = prototype.getLimit().getMaxCountInCell() - organisms.size();
+        for (int i = Math.min(whole, free); i > 0; i--) {
+            Organism organism = Organism.clone(prototype);
+            organism.setWeight(Math.min(weight, prototype.getLimit().getMaxWeight()));
+            organisms.add(organism);
+        }
+        if (whole > 0) {
+            cell.wake();
+        }
+    }
+
+    private void eat(Aggregate aggregate) {
+        double slim = Setting.get().getPercentAnimalSlim() / 100.0;
+        for (int hunter = 0; hunter < prototypes.size(); hunter++) {
+            Organism prototype = prototypes.get(hunter);
+            double count = aggregate.getCount(hunter);
+            if (!(prototype instanceof Animal) || count <= 0 || !due[hunter]) {
+                continue;
+            }
+            Limit limit = prototype.getLimit();
+            int interval = intervals[hunter];
+            double meanWeight = aggregate.getMeanWeight(hunter);
+            double need = Math.min(limit.getMaxFood() * interval, limit.getMaxWeight() - meanWeight);
+            //a hunter either caught nothing yet (probability miss, full need) or is partly fed (mean rest of need)
+            double miss = 1;
+            double rest = 0;
+            double gain = 0;
+            Map<String, Integer> foodMap = Setting.get().getFoodMap(prototype.getType());
+            for (Map.Entry<String, Integer> entry : foodMap.entrySet()) {
+                Integer prey = speciesIndex.get(entry.getKey());
+                if (prey == null || aggregate.getCount(prey) <= 0 || need <= 0) {
+                    continue;
+                }
+                double p = 1 - Math.pow(1 - entry.getValue() / 100.0, interval);
+                double preyWeight = aggregate.getMeanWeight(prey);
+                double takeHungry = Math.min(preyWeight, need);
+                double takeFed = Math.min(preyWeight, rest);
+                double take = p * (miss * takeHungry + (1 - miss) * takeFed);
+                double eaten = Math.min(aggregate.getBiomass(prey), count * take);
+                aggregate.set(prey, aggregate.getCount(prey) - eaten / preyWeight, aggregate.getBiomass(prey) - eaten);
+                gain += eaten;
+                double fed = 1 - miss + miss * p;
+                rest = ((1 - miss) * (rest - p * takeFed) + miss * p * (need - takeHungry)) / fed;
+                miss *= 1 - p;
+            }
+            //hungry hunters slim by loss, those lighter than the loss starve
+            double loss = limit.getMaxWeight() * slim * interval;
+            double spread = spread(meanWeight, limit.getMaxWeight());
+            double hungry = count * miss;
+            double starved = hungry * lighterThan(loss, meanWeight, limit.getMaxWeight());
+            double starvedBiomass = starved * (meanWeight - spread + Math.min(loss, meanWeight + spread)) / 2;
+            double left = count - starved;
+            double biomass = aggregate.getBiomass(hunter) + gain - starvedBiomass - (hungry - starved) * loss;
+            aggregate.set(hunter, left, Math.min(biomass, left * limit.getMaxWeight()));
+        }
+    }
+
+    private void move(Cell cell, Aggregate aggregate) {
+        List<Cell> neighbours = neighbours(cell.getRow(), cell.getCol());
+        for (int species = 0; species < prototypes.size(); species++) {
+            Limit limit = prototypes.get(species).getLimit();
+            double count = aggregate.getCount(species);
+            if (count <= 0 || limit.getMaxSpeed() <= 0 || neighbours.isEmpty() || !due[species]) {
+                continue;
+            }
+            //Animal.move walks 0..speed * interval steps, all but 0 leave the cell
+            int steps = limit.getMaxSpeed() * intervals[species];
+            double share = count * steps / (steps + 1.0) / neighbours.size();
+            double weight = aggregate.getMeanWeight(species);
+            double moved = 0;
+            for (Cell target : neighbours) {
+                Aggregate other = target.getAggregate();
+                Aggregate arrived = arrivals.get(target);
+                double present = other == null
+                        ? target.getResidents().get(prototypes.get(species).getSpeciesId()).size()
+                        : other.getCount(species) + (arrived == null ? 0 : arrived.getCount(species));
+                double step = Math.min(share, Math.max(0, limit.getMaxCountInCell() - present));
+                if (step <= 0) {
+                    continue;
+                }
+                if (other == null) {
+                    materialize(target, species, step, weight);
+                } else {
+                    arrivals.computeIfAbsent(target, c -> new Aggregate()).add(species, step, step * weight);
+                }
+                moved += step;
+            }
+            aggregate.set(species, count - moved, (count - moved) * weight);
+        }
+    }
+
+    private void spawn(Aggregate aggregate) {
+        for (int species = 0; species < prototypes.size(); species++) {
+            Organism prototype = prototypes.get(species);
+            Limit limit = prototype.getLimit();
+            double count = aggregate.getCount(species);
+            if (count <= 0 || !due[species]) {
+                continue;
+            }
+            int interval = intervals[species];
+            double born = 1 - Math.pow(1 - EntityCreator.PERCENT_PROBABLY_BORN / 100.0, interval);
+            double grow = Setting.get().getPercentPlantGrow() * interval / 100.0;
+            double maxWeight = limit.getMaxWeight();
+            double biomass = aggregate.getBiomass(species);
+            double births;
+            if (prototype instanceof Animal) {
+                //scattered animals meet a partner with Poisson odds 1 - e^-count
+                boolean ready = aggregate.getMeanWeight(species) >= maxWeight / 2;
+                births = ready ? count * born * (1 - Math.exp(-count)) : 0;
+            } else {
+                biomass = Math.min(count * maxWeight, biomass + count * maxWeight * grow);
+                births = count * born * biomass / (count * maxWeight);
+            }
+            births = Math.min(births, Math.max(0, limit.getMaxCountInCell() - count));
+            //newborns weigh maxWeight * [0.5, 1), see Organism.clone
+            aggregate.set(species, count + births, biomass + births * maxWeight * 0.75);
+        }
+    }
+
+    //weights of a species are taken as spread evenly around the mean, as wide as 0..maxWeight allows
+    private static double spread(double meanWeight, double maxWeight) {
+        return Math.max(0, Math.min(meanWeight, maxWeight - meanWeight));
+    }
+
+    //share of the animals lighter than the level
+    private static double lighterThan(double level, double meanWeight, double maxWeight) {
+        double spread = spread(meanWeight, maxWeight);
+        if (spread == 0) {
+            return level > meanWeight ? 1 : 0;
+        }
+        return Math.clamp((level - meanWeight + spread) / (2 * spread), 0.0, 1.0);
+    }
+
+    //cells of the area that lie on the map
+    private void forEachCell(Focus area, Consumer<Cell> action) {
+        Cell[][] cells = gameMap.getCells();
+        int rowTo = Math.min(gameMap.getRows(), area.row() + area.rows());
+        int colTo = Math.min(gameMap.getCols(), area.col() + area.cols());
+        for (int row = Math.max(0, area.row()); row < rowTo; row++) {
+            for (int col = Math.max(0, area.col()); col < colTo; col++) {
+                action.accept(cells[row][col]);
+            }
+        }
+    }
+
+    //orthogonal neighbours, as in Cell.updateNextCell
+    private List<Cell> neighbours(int row, int col) {
+        Cell[][] cells = gameMap.getCells();
+        List<Cell> neighbours = new ArrayList<>(4);
+        if (row > 0) neighbours.add(cells[row - 1][col]);
+        if (col > 0) neighbours.add(cells[row][col - 1]);
+        if (row < gameMap.getRows() - 1) neighbours.add(cells[row + 1][col]);
+        if (col < gameMap.getCols() - 1) neighbours.add(cells[row][col + 1]);
+        return neighbours;
+    }
+
+    private int indexOf(Cell cell) {
+        return cell.getRow() * gameMap.getCols() + cell.getCol();
+    }
+
+    @Override
+    public int getParallelism() {
+        return detail.getParallelism();
+    }
+
+    @Override
+    public void setParallelism(int parallelism) {
+        detail.setParallelism(parallelism);
+    }
+
+    @Override
+    public String report() {
+        String inner = detail.report();
+        String lod = String.format(Locale.ROOT, "lod: focus=%dx%d at (%d,%d)",
+                focus.rows(), focus.cols(), focus.row(), focus.col());
+        return inner.isEmpty() ? lod : inner + "\n" + lod;
+    }
+
+    @Override
+    public void close() {
+        detail.close();
+    }
+}
@@ -1,38 +1,117 @@
 package com.javarush.island.khmelov.services;
 
+import com.javarush.island.khmelov.config.Setting;
 import com.javarush.island.khmelov.entity.map.Cell;
 import com.javarush.island.khmelov.entity.map.GameMap;
 import com.javarush.island.khmelov.entity.organizm.Organism;
+import com.javarush.island.khmelov.entity.organizm.Organisms;
+import com.javarush.island.khmelov.entity.organizm.animals.Animal;
 import com.javarush.island.khmelov.exception.GameException;
+import com.javarush.island.khmelov.util.Rnd;
 
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.List;
+import java.util.function.Consumer;
 
 public class OrganismWorker implements Runnable {
 
+    //sweeps of one tick: processOneCell, eat, move, spawn
+    private static final int PASSES = 4;
+
     private final Organism prototype;
     private final GameMap gameMap;
+    //updateInterval from setting.yaml: the species acts on every n-th tick only
+    private final int interval;
+    private long tick;
+    private volatile boolean due = true;
 
     public OrganismWorker(Organism prototype, GameMap gameMap) {
         this.prototype = prototype;
         this.gameMap = gameMap;
+        this.interval = Setting.get().getUpdateInterval(prototype.getType());
+    }
+
+    public Organism getPrototype() {
+        return prototype;
+    }
+
+    //called by the engine before each tick
+    public void beginTick() {
+        due = tick++ % interval == 0;
+    }
+
+    public boolean isDue() {
+        return due;
     }
 
     @Override
     public void run() {
-        Cell[][] cells = gameMap.getCells();
-        for (Cell[] row : cells) {
-            for (Cell cell : row) {
-                try {
-                    processOneCell(cell);
-                } catch (Exception e) {
-                    throw new GameException("incorrect event", e);
-                }
+        sweep(this::processOneCell);
+    }
+
+    //active cells of the tick, all cells when activeCells is off
+    public void sweep(Consumer<Cell> action) {
+        if (!due) {
+            return;
+        }
+        for (Cell cell : gameMap.getActiveCells().getCells()) {
+            try {
+                action.accept(cell);
+            } catch (Exception e) {
+                throw new GameException("incorrect event", e);
             }
         }
     }
 
-    private void processOneCell(Cell cell) {
-        //logic
+    //organisms guard the cells they change (Organism.safe*) with the guard of the map
+    public void processOneCell(Cell cell) {
+        forEachResident(cell, 0, organism -> {
+            if (organism instanceof Animal animal) {
+                animal.eat(cell);
+                animal.spawn(cell);
+                animal.move(cell);
+            } else {
+                organism.spawn(cell);
+            }
+        });
+    }
+
+    public void eat(Cell cell) {
+        forEachResident(cell, 1, organism -> {
+            if (organism instanceof Animal animal) {
+                animal.eat(cell);
+            }
+        });
+    }
+
+    public void move(Cell cell) {
+        forEachResident(cell, 2, organism -> {
+            if (organism instanceof Animal animal) {
+                animal.move(cell);
+            }
+        });
+    }
+
+    public void spawn(Cell cell) {
+        forEachResident(cell, 3, organism -> organism.spawn(cell));
+    }
+
+    //an organism that moved into a cell the sweep has not reached yet acts only once per tick
+    private void forEachResident(Cell cell, int pass, Consumer<Organism> action) {
+        if (!due) {
+            return;
+        }
+        long stamp = tick * PASSES + pass;
+        List<Organism> snapshot = cell.getGuard().read(cell, () -> {
+            Organisms organisms = cell.getResidents().get(prototype.getSpeciesId());
+            return organisms.isEmpty() ? List.<Organism>of() : organisms.stream().toList();
+        });
+        //organisms that died or left in the meantime are skipped by safe* checks
+        Rnd.run(cell.getRandom(), () -> {
+            for (Organism organism : snapshot) {
+                if (organism.markActed(stamp)) {
+                    action.accept(organism);
+                }
+            }
+        });
     }
 }
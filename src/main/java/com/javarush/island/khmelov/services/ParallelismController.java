@@ -0,0 +1,124 @@
+package com.javarush.island.khmelov.services;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Hill-climbing tuner of the worker count. The mean tick time is measured over a window
+ * at the current degree, then one thread more and one less are probed.
+ * A thread is added only while it speeds the tick up by at least {@code GAIN},
+ * and removed while that costs less than {@code GAIN}, so the degree settles at the knee
+ * of the scaling curve. Populations change, so the search is repeated from time to time.
+ */
+public class ParallelismController {
+
+    public static final int MIN_CELLS_PER_THREAD = 64;
+
+    private static final int WINDOW = 5;
+    //first tick after start or resize pays for thread start-up and warm-up
+    private static final int SKIP_TICKS = 1;
+    private static final double GAIN = 0.05;
+    private static final int RETUNE_WINDOWS = 20;
+
+    private final int maxDegree;
+    //degree -> mean tick time (nanos) of the last window measured at this degree
+    private final Map<Integer, Double> measured = new TreeMap<>();
+
+    private int home;
+    private int degree;
+    private boolean settled;
+    private int settledWindows;
+    private long windowNanos;
+    private int windowTicks;
+    private int skipTicks = SKIP_TICKS;
+
+    public ParallelismController(int initialDegree, int cellCount) {
+        this.maxDegree = getMaxUsefulDegree(cellCount);
+        this.home = Math.max(1, Math.min(initialDegree, maxDegree));
+        this.degree = home;
+        //tiny maps: coordination costs more than the work
+        this.settled = maxDegree == 1;
+    }
+
+    public static int getMaxUsefulDegree(int cellCount) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return Math.max(1, Math.min(cores, cellCount / MIN_CELLS_PER_THREAD));
+    }
+
+    public int getDegree() {
+        return degree;
+    }
+
+    /**
+     * @param tickNanos wall time of the tick just finished
+     * @return degree for the next tick
+     */
+    public int onTick(long tickNanos) {
+        if (maxDegree == 1) {
+            return degree;
+        }
+        if (skipTicks > 0) {
+            skipTicks--;
+            return degree;
+        }
+        windowNanos += tickNanos;
+        if (++windowTicks < WINDOW) {
+            return degree;
+        }
+        measured.put(degree, (double) windowNanos / windowTicks);
+        windowNanos = 0;
+        windowTicks = 0;
+        if (settled) {
+            if (++settledWindows < RETUNE_WINDOWS) {
+                return degree;
+            }
+            settled = false;
+            settledWindows = 0;
+            measured.keySet().removeIf(d -> d != degree);
+        }
+        int previous = degree;
+        degree = next();
+        if (degree != previous) {
+            skipTicks = SKIP_TICKS;
+        }
+        return degree;
+    }
+
+    private int next() {
+        double here = measured.get(home);
+        int up = home + 1;
+        if (up <= maxDegree) {
+            Double time = measured.get(up);
+            if (time == null) {
+                return up;
+            }
+            if (time < here * (1 - GAIN)) {
+                home = up;
+                return next();
+            }
+        }
+        int down = home - 1;
+        if (down >= 1) {
+            Double time = measured.get(down);
+            if (time == null) {
+                return down;
+            }
+            if (time <= here * (1 + GAIN)) {
+                home = down;
+                return next();
+            }
+        }
+        settled = true;
+        return home;
+    }
+
+    public String report() {
+        String times = measured.entrySet().stream()
+                .map(e -> String.format(Locale.ROOT, "%d=%.2fms", e.getKey(), e.getValue() / 1e6))
+                .collect(Collectors.joining(", "));
+        return String.format(Locale.ROOT, "parallelism: degree=%d max=%d %s [%s]",
+                degree, maxDegree, settled ? "settled" : "probing", times);
+    }
+}
@@ -0,0 +1,103 @@
+package com.javarush.island.khmelov.services;
+
+import com.javarush.island.khmelov.exception.GameException;
+
+import java.util.List;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Long-lived worker threads that run one tick as a sequence of phases.
+ * Every phase is a list of tasks shared by all workers, and a {@link Phaser}
+ * barrier separates the phases, so threads are created once per game, not per tick.
+ */
+public class PhasedTickExecutor implements AutoCloseable {
+
+    private final Phaser phaser;
+    private final Thread[] threads;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    private volatile List<List<Runnable>> phases = List.of();
+    private volatile AtomicInteger[] cursors = new AtomicInteger[0];
+    private volatile boolean closed;
+
+    public PhasedTickExecutor(int parallelism, String name) {
+        //workers + coordinator
+        phaser = new Phaser(parallelism + 1);
+        threads = new Thread[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            threads[i] = new Thread(this::work, name + "-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+    }
+
+    public int getParallelism() {
+        return threads.length;
+    }
+
+    public void runTick(List<List<Runnable>> phases) {
+        if (closed) {
+            throw new GameException("executor is closed");
+        }
+        AtomicInteger[] cursors = new AtomicInteger[phases.size()];
+        for (int i = 0; i < cursors.length; i++) {
+            cursors[i] = new AtomicInteger();
+        }
+        this.cursors = cursors;
+        this.phases = phases;
+        phaser.arriveAndAwaitAdvance(); //start of tick
+        for (int i = 0; i < phases.size(); i++) {
+            phaser.arriveAndAwaitAdvance(); //end of phase
+        }
+        Throwable throwable = failure.getAndSet(null);
+        if (throwable != null) {
+            throw new GameException("tick failed", throwable);
+        }
+    }
+
+    private void work() {
+        while (true) {
+            phaser.arriveAndAwaitAdvance();
+            if (closed) {
+                phaser.arriveAndDeregister();
+                return;
+            }
+            List<List<Runnable>> phases = this.phases;
+            AtomicInteger[] cursors = this.cursors;
+            for (int i = 0; i < phases.size(); i++) {
+                runPhase(phases.get(i), cursors[i]);
+                phaser.arriveAndAwaitAdvance();
+            }
+        }
+    }
+
+    private void runPhase(List<Runnable> tasks, AtomicInteger cursor) {
+        int index;
+        while ((index = cursor.getAndIncrement()) < tasks.size()) {
+            try {
+                tasks.get(index).run();
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        phaser.arriveAndDeregister();
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.javarush.island.khmelov.services;
+
+/**
+ * Sum tree over non-negative rates: set one rate in O(log n), pick an index with
+ * probability rate/total in O(log n). Inner nodes are recomputed from their children
+ * on every update, so rounding errors do not accumulate.
+ */
+class RateTree {
+
+    private final int size;
+    private final int leaves;
+    //tree[1] is the root, leaves start at tree[leaves]
+    private final double[] tree;
+
+    RateTree(int size) {
+        this.size = size;
+        int leaves = 1;
+        while (leaves < size) {
+            leaves <<= 1;
+        }
+        this.leaves = leaves;
+        this.tree = new double[2 * leaves];
+    }
+
+    int size() {
+        return size;
+    }
+
+    double total() {
+        return tree[1];
+    }
+
+    double get(int index) {
+        return tree[leaves + index];
+    }
+
+    void set(int index, double rate) {
+        int node = leaves + index;
+        tree[node] = rate;
+        for (node >>= 1; node > 0; node >>= 1) {
+            tree[node] = tree[2 * node] + tree[2 * node + 1];
+        }
+    }
+
+    /**
+     * @param point a value in [0, total)
+     * @return the index whose rate interval contains the point, -1 if it hit no rate
+     */
+    int find(double point) {
+        int node = 1;
+        while (node < leaves) {
+            double left = tree[2 * node];
+            if (point < left) {
+                node = 2 * node;
+            } else {
+                point -= left;
+                node = 2 * node + 1;
+            }
+        }
+        //rounding can push the point past the last positive rate
+        return tree[node] > 0 ? node - leaves : -1;
+    }
+}
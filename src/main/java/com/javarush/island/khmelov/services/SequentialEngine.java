@@ -0,0 +1,37 @@
+package com.javarush.island.khmelov.services;
+
+import com.javarush.island.khmelov.api.engine.TickEngine;
+import com.javarush.island.khmelov.config.Setting;
+import com.javarush.island.khmelov.entity.map.GameMap;
+
+import java.util.List;
+
+/**
+ * Single-threaded engine for batch runs (one island per core): no worker threads,
+ * no barriers, and with {@code concurrency: none} no locks either.
+ * Phases and sweep order are those of {@link SpeciesEngine}, so with the same {@code seed}
+ * it plays the same game as the species engine running one worker thread.
+ */
+public class SequentialEngine implements TickEngine {
+
+    public static final String NAME = "sequential";
+
+    private final GameMap gameMap;
+    private final List<OrganismWorker> workers;
+
+    public SequentialEngine(GameMap gameMap, List<OrganismWorker> workers) {
+        this.gameMap = gameMap;
+        this.workers = List.copyOf(workers);
+    }
+
+    @Override
+    public void tick() {
+        if (Setting.get().isActiveCells()) {
+            gameMap.getActiveCells().nextTick();
+        }
+        workers.forEach(OrganismWorker::beginTick);
+        workers.forEach(worker -> worker.sweep(worker::eat));
+        workers.forEach(worker -> worker.sweep(worker::move));
+        workers.forEach(worker -> worker.sweep(worker::spawn));
+    }
+}
@@ -0,0 +1,230 @@
+package com.javarush.island.khmelov.services;
+
+import com.javarush.island.khmelov.api.engine.TickEngine;
+import com.javarush.island.khmelov.entity.map.Cell;
+import com.javarush.island.khmelov.entity.map.GameMap;
+import com.javarush.island.khmelov.entity.map.ShardBand;
+import com.javarush.island.khmelov.entity.organizm.Organism;
+import com.javarush.island.khmelov.entity.organizm.Organisms;
+import com.javarush.island.khmelov.exception.GameException;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * One shard of an island split by rows across processes ({@code ShardRunner}).
+ * The wrapped engine runs the own rows of the {@link ShardBand}; after its tick:
+ * <ol>
+ *     <li>organisms that moved into ghost rows become migrants of the neighbour owning those rows;</li>
+ *     <li>each shard sends its neighbours the migrants and the counts of its own border rows
+ *     (as deep as the ghost rows), and reads the same from them;</li>
+ *     <li>migrants are placed in map order, those from above first; a migrant that finds its cell
+ *     full is lost and counted;</li>
+ *     <li>ghost rows are refilled with placeholders by the received counts, so moves into them
+ *     respect the places the neighbour has taken.</li>
+ * </ol>
+ * Messages go over local sockets ({@link HaloLink}) in lockstep, one per tick and neighbour.
+ * Migration order depends on map order only, so with {@code engine: sequential} and a seed
+ * a sharded run repeats itself exactly.
+ */
+public class ShardEngine implements TickEngine {
+
+    private final GameMap gameMap;
+    private final List<Organism> prototypes;
+    private final TickEngine detail;
+    private final ShardBand band;
+    private final int halo;
+    private final HaloLink up;
+    private final HaloLink down;
+    //shared by all ghost cells, never act (ghost cells are not active)
+    private final List<List<Organism>> placeholders = new ArrayList<>();
+    private final Set<Organism> placeholderSet = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private long tick;
+    private long sent;
+    private long received;
+    private long lost;
+
+    public ShardEngine(GameMap gameMap, List<Organism> prototypes, TickEngine detail,
+                       ShardBand band, int halo, int basePort) {
+        this.gameMap = gameMap;
+        this.prototypes = List.copyOf(prototypes);
+        this.detail = detail;
+        this.band = band;
+        this.halo = halo;
+        for (Organism prototype : this.prototypes) {
+            List<Organism> pool = new ArrayList<>();
+            for (int i = 0; i < prototype.getLimit().getMaxCountInCell(); i++) {
+                pool.add(Organism.clone(prototype));
+            }
+            placeholders.add(pool);
+            placeholderSet.addAll(pool);
+        }
+        //everyone listens before connecting down, so the shards can start in any order
+        ServerSocket server = band.getGhostTop() > 0 ? HaloLink.listen(basePort + band.getShard()) : null;
+        this.down = band.getGhostBottom() > 0 ? HaloLink.connect(basePort + band.getShard() + 1) : null;
+        this.up = server != null ? HaloLink.accept(server) : null;
+        closeQuietly(server);
+        exchange();
+    }
+
+    @Override
+    public void tick() {
+        detail.tick();
+        tick++;
+        exchange();
+    }
+
+    private void exchange() {
+        int localRows = band.getLocalRows();
+        int ownTop = band.getGhostTop();
+        int ownBottom = localRows - band.getGhostBottom();
+        if (up != null) {
+            up.send(new HaloLink.Message(tick, summary(ownTop, ownTop + halo), migrants(0, ownTop)));
+        }
+        if (down != null) {
+            down.send(new HaloLink.Message(tick, summary(ownBottom - halo, ownBottom), migrants(ownBottom, localRows)));
+        }
+        HaloLink.Message fromUp = up != null ? receive(up) : null;
+        HaloLink.Message fromDown = down != null ? receive(down) : null;
+        if (fromUp != null) {
+            place(fromUp);
+            fillGhosts(0, fromUp.summary());
+        }
+        if (fromDown != null) {
+            place(fromDown);
+            fillGhosts(ownBottom, fromDown.summary());
+        }
+    }
+
+    private HaloLink.Message receive(HaloLink link) {
+        HaloLink.Message message = link.receive();
+        if (message.tick() != tick) {
+            throw new GameException("shards out of step: tick " + tick + ", neighbour " + message.tick());
+        }
+        return message;
+    }
+
+    private int[] summary(int fromRow, int toRow) {
+        Cell[][] cells = gameMap.getCells();
+        int cols = gameMap.getCols();
+        int species = prototypes.size();
+        int[] counts = new int[(toRow - fromRow) * cols * species];
+        for (int row = fromRow; row < toRow; row++) {
+            for (int col = 0; col < cols; col++) {
+                for (int s = 0; s < species; s++) {
+                    int i = ((row - fromRow) * cols + col) * species + s;
+                    counts[i] = cells[row][col].getResidents().get(prototypes.get(s).getSpeciesId()).size();
+                }
+            }
+        }
+        return counts;
+    }
+
+    //takes everything but placeholders out of the ghost rows
+    private List<HaloLink.Migrant> migrants(int fromRow, int toRow) {
+        List<HaloLink.Migrant> migrants = new ArrayList<>();
+        Cell[][] cells = gameMap.getCells();
+        for (int row = fromRow; row < toRow; row++) {
+            for (int col = 0; col < gameMap.getCols(); col++) {
+                for (int s = 0; s < prototypes.size(); s++) {
+                    Organisms organisms = cells[row][col].getResidents().get(prototypes.get(s).getSpeciesId());
+                    int globalRow = band.toGlobal(row);
+                    int c = col;
+                    int species = s;
+                    organisms.forEach(organism -> {
+                        if (!placeholderSet.contains(organism)) {
+                            migrants.add(new HaloLink.Migrant(globalRow, c, species, organism.getWeight()));
+                        }
+                    });
+                    organisms.clear();
+                }
+            }
+        }
+        sent += migrants.size();
+        return migrants;
+    }
+
+    private void place(HaloLink.Message message) {
+        Cell[][] cells = gameMap.getCells();
+        for (HaloLink.Migrant migrant : message.migrants()) {
+            int row = band.toLocal(migrant.row());
+            Organism prototype = prototypes.get(migrant.species());
+            Cell cell = cells[row][migrant.col()];
+            Organisms organisms = cell.getResidents().get(prototype.getSpeciesId());
+            if (cell.isGhost() || organisms.size() >= prototype.getLimit().getMaxCountInCell()) {
+                lost++;
+                continue;
+            }
+            Organism organism = Organism.clone(prototype);
+            organism.setWeight(migrant.weight());
+            organisms.add(organism);
+            cell.wake();
+            received++;
+        }
+    }
+
+    private void fillGhosts(int fromRow, int[] counts) {
+        Cell[][] cells = gameMap.getCells();
+        int cols = gameMap.getCols();
+        int species = prototypes.size();
+        for (int row = fromRow; row < fromRow + halo; row++) {
+            for (int col = 0; col < cols; col++) {
+                for (int s = 0; s < species; s++) {
+                    Organisms organisms = cells[row][col].getResidents().get(prototypes.get(s).getSpeciesId());
+                    organisms.clear();
+                    int count = counts[((row - fromRow) * cols + col) * species + s];
+                    List<Organism> pool = placeholders.get(s);
+                    for (int i = 0; i < count && i < pool.size(); i++) {
+                        organisms.add(pool.get(i));
+                    }
+                }
+            }
+        }
+    }
+
+    private static void closeQuietly(ServerSocket server) {
+        if (server != null) {
+            try {
+                server.close();
+            } catch (IOException e) {
+                //the link is accepted already
+            }
+        }
+    }
+
+    @Override
+    public int getParallelism() {
+        return detail.getParallelism();
+    }
+
+    @Override
+    public void setParallelism(int parallelism) {
+        detail.setParallelism(parallelism);
+    }
+
+    @Override
+    public String report() {
+        String inner = detail.report();
+        String shard = String.format(Locale.ROOT, "%s: halo=%d migrants out=%d in=%d lost=%d",
+                band, halo, sent, received, lost);
+        return inner.isEmpty() ? shard : inner + "\n" + shard;
+    }
+
+    @Override
+    public void close() {
+        detail.close();
+        if (up != null) {
+            up.close();
+        }
+        if (down != null) {
+            down.close();
+        }
+    }
+}
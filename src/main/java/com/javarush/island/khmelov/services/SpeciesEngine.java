@@ -0,0 +1,66 @@
+package com.javarush.island.khmelov.services;
+
+import com.javarush.island.khmelov.api.engine.TickEngine;
+import com.javarush.island.khmelov.config.Setting;
+import com.javarush.island.khmelov.entity.map.GameMap;
+
+import java.util.List;
+
+/**
+ * Species-major engine: one task per prototype sweeps the whole map.
+ * Eat, move and reproduce are separate phases on a persistent {@link PhasedTickExecutor}.
+ * Sweeps visit the active cells of the tick only (see {@code ActiveCells}),
+ * and a species with {@code updateInterval} n sweeps on every n-th tick only.
+ */
+public class SpeciesEngine implements TickEngine {
+
+    public static final String NAME = "species";
+
+    private final GameMap gameMap;
+    private final List<OrganismWorker> workers;
+    private PhasedTickExecutor executor;
+    private final List<List<Runnable>> phases;
+
+    public SpeciesEngine(GameMap gameMap, List<OrganismWorker> workers, int parallelism) {
+        this.gameMap = gameMap;
+        this.workers = List.copyOf(workers);
+        this.executor = new PhasedTickExecutor(parallelism, "species-worker");
+        List<Runnable> eat = workers.stream()
+                .<Runnable>map(worker -> () -> worker.sweep(worker::eat))
+                .toList();
+        List<Runnable> move = workers.stream()
+                .<Runnable>map(worker -> () -> worker.sweep(worker::move))
+                .toList();
+        List<Runnable> reproduce = workers.stream()
+                .<Runnable>map(worker -> () -> worker.sweep(worker::spawn))
+                .toList();
+        this.phases = List.of(eat, move, reproduce);
+    }
+
+    @Override
+    public void tick() {
+        if (Setting.get().isActiveCells()) {
+            gameMap.getActiveCells().nextTick();
+        }
+        workers.forEach(OrganismWorker::beginTick);
+        executor.runTick(phases);
+    }
+
+    @Override
+    public int getParallelism() {
+        return executor.getParallelism();
+    }
+
+    @Override
+    public void setParallelism(int parallelism) {
+        if (parallelism != executor.getParallelism()) {
+            executor.close();
+            executor = new PhasedTickExecutor(parallelism, "species-worker");
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
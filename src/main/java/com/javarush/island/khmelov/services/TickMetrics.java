@@ -0,0 +1,80 @@
+package com.javarush.island.khmelov.services;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Per-tick load metrics of a phased engine.
+ * Utilization - busy time of all threads / (threads * tick wall time).
+ * Imbalance - sum of the busiest thread time per phase / sum of the mean thread time per phase,
+ * 1.0 means every phase ended on all threads at the same moment.
+ */
+public class TickMetrics {
+
+    private final int threads;
+    private final Map<String, LongAdder> phaseBusy = new ConcurrentHashMap<>();
+    private final Map<String, Long> tickBusy = new ConcurrentHashMap<>();
+
+    private long tickStart;
+    private long wallNanos;
+    private long criticalNanos;
+    private long idealNanos;
+
+    public TickMetrics(int threads) {
+        this.threads = threads;
+    }
+
+    public void beginTick() {
+        tickBusy.clear();
+        criticalNanos = 0;
+        idealNanos = 0;
+        tickStart = System.nanoTime();
+    }
+
+    public void beginPhase() {
+        phaseBusy.clear();
+    }
+
+    //called by worker threads
+    public void record(long nanos) {
+        phaseBusy.computeIfAbsent(Thread.currentThread().getName(), name -> new LongAdder()).add(nanos);
+    }
+
+    public void endPhase() {
+        long max = 0;
+        long total = 0;
+        for (Map.Entry<String, LongAdder> entry : phaseBusy.entrySet()) {
+            long busy = entry.getValue().sum();
+            max = Math.max(max, busy);
+            total += busy;
+            tickBusy.merge(entry.getKey(), busy, Long::sum);
+        }
+        criticalNanos += max;
+        idealNanos += total / Math.max(threads, phaseBusy.size());
+    }
+
+    public void endTick() {
+        wallNanos = System.nanoTime() - tickStart;
+    }
+
+    public double getUtilization() {
+        long busy = tickBusy.values().stream().mapToLong(Long::longValue).sum();
+        return wallNanos == 0 ? 0 : (double) busy / ((long) Math.max(threads, tickBusy.size()) * wallNanos);
+    }
+
+    public double getImbalance() {
+        return idealNanos == 0 ? 1 : (double) criticalNanos / idealNanos;
+    }
+
+    public String report() {
+        String perThread = tickBusy.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(e -> String.format(Locale.ROOT, "%s=%.0f%%", e.getKey(), wallNanos == 0 ? 0 : 100.0 * e.getValue() / wallNanos))
+                .collect(Collectors.joining(", "));
+        return String.format(Locale.ROOT, "tick: wall=%.2fms utilization=%.0f%% imbalance=%.2f [%s]",
+                wallNanos / 1e6, 100 * getUtilization(), getImbalance(), perThread);
+    }
+}
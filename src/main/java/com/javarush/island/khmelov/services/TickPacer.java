@@ -0,0 +1,124 @@
+package com.javarush.island.khmelov.services;
+
+import java.util.Locale;
+
+/**
+ * Decides when the next tick starts and how late each tick was.
+ * Tick n is due at {@code start + n * period}; lateness is measured against that ideal
+ * schedule for every policy, so it also shows how far simulated time slipped behind wall time.
+ * Policies differ in what happens after an overrun:
+ * <ul>
+ *     <li>{@code catch_up} - run the missed ticks back to back until on schedule again;</li>
+ *     <li>{@code drop_frames} - the same, but do not render while behind;</li>
+ *     <li>{@code stretch} - start the next tick right away and shift the schedule;</li>
+ *     <li>{@code as_fast_as_possible} - no waiting at all.</li>
+ * </ul>
+ * Only the scheduler thread calls the pacer.
+ */
+public class TickPacer {
+
+    public enum Policy {
+        CATCH_UP, DROP_FRAMES, STRETCH, AS_FAST_AS_POSSIBLE;
+
+        public static Policy of(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final Policy policy;
+    private final long periodNanos;
+
+    private long start;
+    private long ticks;
+    //when the next tick should start under the policy
+    private long deadline;
+
+    private long lastLateness;
+    private long maxLateness;
+    private long totalLateness;
+    private long droppedFrames;
+    private boolean slipping;
+
+    public TickPacer(Policy policy, long periodNanos) {
+        this.policy = policy;
+        this.periodNanos = periodNanos;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @return delay before the first tick
+     */
+    public long start(long now) {
+        start = now;
+        deadline = now + periodNanos;
+        return policy == Policy.AS_FAST_AS_POSSIBLE ? 0 : periodNanos;
+    }
+
+    /**
+     * Records the lateness of a tick starting now.
+     *
+     * @return true if the tick became more than one period late (alert once per slip)
+     */
+    public boolean onTickStart(long now) {
+        ticks++;
+        lastLateness = Math.max(0, now - (start + ticks * periodNanos));
+        maxLateness = Math.max(maxLateness, lastLateness);
+        totalLateness += lastLateness;
+        boolean late = lastLateness > periodNanos;
+        boolean alert = late && !slipping;
+        slipping = late;
+        return alert;
+    }
+
+    /**
+     * @param now end of the tick
+     * @return false if the frame should be dropped to catch up
+     */
+    public boolean shouldRender(long now) {
+        if (policy == Policy.DROP_FRAMES && now > start + (ticks + 1) * periodNanos) {
+            droppedFrames++;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param now end of the tick
+     * @return delay in nanos before the next tick
+     */
+    public long nextDelay(long now) {
+        deadline = switch (policy) {
+            case CATCH_UP, DROP_FRAMES -> deadline + periodNanos;
+            case STRETCH -> Math.max(deadline + periodNanos, now);
+            case AS_FAST_AS_POSSIBLE -> now;
+        };
+        return Math.max(0, deadline - now);
+    }
+
+    /**
+     * @return simulated time (ticks * period) per wall time since start, 1.0 = on pace
+     */
+    public double getPaceRatio(long now) {
+        long wall = now - start;
+        return wall <= 0 ? 1.0 : (double) ticks * periodNanos / wall;
+    }
+
+    public long getLastLateness() {
+        return lastLateness;
+    }
+
+    public boolean isSlipping() {
+        return slipping;
+    }
+
+    public String report(long now) {
+        return String.format(Locale.ROOT,
+                "pace: policy=%s ratio=%.2f lateness last=%.1fms mean=%.1fms max=%.1fms dropped=%d%s",
+                policy.name().toLowerCase(Locale.ROOT), getPaceRatio(now),
+                lastLateness / 1e6, ticks == 0 ? 0.0 : totalLateness / 1e6 / ticks, maxLateness / 1e6,
+                droppedFrames, slipping ? " SLIPPING" : "");
+    }
+}
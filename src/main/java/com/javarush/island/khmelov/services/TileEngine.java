@@ -0,0 +1,224 @@
+package com.javarush.island.khmelov.services;
+
+import com.javarush.island.khmelov.api.engine.TickEngine;
+import com.javarush.island.khmelov.config.Setting;
+import com.javarush.island.khmelov.entity.map.Cell;
+import com.javarush.island.khmelov.entity.map.GameMap;
+import com.javarush.island.khmelov.entity.map.ResidentMap;
+import com.javarush.island.khmelov.entity.map.SequentialCellGuard;
+import com.javarush.island.khmelov.entity.map.Tile;
+import com.javarush.island.khmelov.entity.organizm.Organism;
+import com.javarush.island.khmelov.exception.GameException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Splits the map into rectangular tiles and processes them in 4 color phases
+ * (2x2 checkerboard). Tiles of one color are at least one tile apart, and a tile
+ * is wider than two longest moves (speed times {@code updateInterval}), so tiles running at the same
+ * time never reach the same cell. Organisms therefore change cells without any locks:
+ * the engine puts a {@link SequentialCellGuard} on the map, whatever {@code concurrency} says.
+ * With a {@code seed} the game does not depend on the thread count either: tiles of a phase share
+ * no cells, and organisms draw from the streams of their cells ({@code Rnd}).
+ * <p>
+ * In the fused mode ({@code engine: fused}) every cell is visited once per tick
+ * and all species run on it in {@code speciesOrder}; otherwise the tile is swept once per species.
+ * <p>
+ * Load balancing: before each phase its tiles are sorted by cost, heaviest first
+ * (last tick time, or resident count before the first tick), and every tile is a separate
+ * fork-join task, so idle workers steal the remaining tiles of a busy one.
+ * With {@code activeCells} a tile visits only its active cells, tiles without any are skipped.
+ */
+public class TileEngine implements TickEngine {
+
+    public static final String NAME = "tile";
+    public static final String FUSED = "fused";
+
+    private final GameMap gameMap;
+    private final CellWorker cellWorker;
+    private final boolean fused;
+    private final List<List<Tile>> phases = new ArrayList<>();
+    private final Tile[][] grid;
+    private final int size;
+    private ForkJoinPool pool;
+    private TickMetrics metrics;
+
+    public TileEngine(GameMap gameMap, CellWorker cellWorker, boolean fused,
+                      List<Organism> prototypes, int parallelism, int tileSize) {
+        this.gameMap = gameMap;
+        this.cellWorker = cellWorker;
+        this.fused = fused;
+        this.pool = new ForkJoinPool(parallelism);
+        this.metrics = new TickMetrics(parallelism);
+        this.size = Math.max(tileSize, getMinTileSize(prototypes));
+        //isolation holds from here on, see getMinTileSize
+        gameMap.setGuard(SequentialCellGuard.get());
+        for (int color = 0; color < Tile.COLORS; color++) {
+            phases.add(new ArrayList<>());
+        }
+        grid = new Tile[(gameMap.getRows() + size - 1) / size][(gameMap.getCols() + size - 1) / size];
+        for (Tile tile : split(gameMap, size)) {
+            phases.get(tile.getColor()).add(tile);
+            grid[tile.getRowFrom() / size][tile.getColFrom() / size] = tile;
+        }
+        assignCells(gameMap.getActiveCells().getCells());
+    }
+
+    //a species with updateInterval n walks n moves at once
+    public static int getMinTileSize(List<Organism> prototypes) {
+        int maxMove = prototypes.stream()
+                .mapToInt(o -> o.getLimit().getMaxSpeed() * Setting.get().getUpdateInterval(o.getType()))
+                .max()
+                .orElse(0);
+        return 2 * maxMove + 1;
+    }
+
+    public static List<Tile> split(GameMap gameMap, int size) {
+        List<Tile> tiles = new ArrayList<>();
+        int rows = gameMap.getRows();
+        int cols = gameMap.getCols();
+        for (int row = 0, tileRow = 0; row < rows; row += size, tileRow++) {
+            for (int col = 0, tileCol = 0; col < cols; col += size, tileCol++) {
+                int color = (tileRow % 2) * 2 + tileCol % 2;
+                tiles.add(new Tile(row, Math.min(row + size, rows), col, Math.min(col + size, cols), color));
+            }
+        }
+        return tiles;
+    }
+
+    @Override
+    public void tick() {
+        if (Setting.get().isActiveCells()) {
+            assignCells(gameMap.getActiveCells().nextTick());
+        }
+        cellWorker.beginTick();
+        metrics.beginTick();
+        for (List<Tile> phase : phases) {
+            if (!phase.isEmpty()) {
+                rebalance(phase);
+                metrics.beginPhase();
+                pool.invoke(new PhaseTask(phase));
+                metrics.endPhase();
+            }
+        }
+        metrics.endTick();
+    }
+
+    //cells come in map order, so every tile gets its cells in map order too
+    private void assignCells(List<Cell> cells) {
+        List<List<Cell>> byTile = new ArrayList<>();
+        for (Tile[] row : grid) {
+            for (Tile ignored : row) {
+                byTile.add(new ArrayList<>());
+            }
+        }
+        int tileCols = grid[0].length;
+        for (Cell cell : cells) {
+            byTile.get(cell.getRow() / size * tileCols + cell.getCol() / size).add(cell);
+        }
+        for (int i = 0; i < byTile.size(); i++) {
+            grid[i / tileCols][i % tileCols].setCells(byTile.get(i));
+        }
+    }
+
+    //LPT order: forked first = stolen first, small tiles fill the gaps at the end
+    private void rebalance(List<Tile> phase) {
+        if (phase.get(0).getCost() == 0) {
+            phase.forEach(tile -> tile.setCost(countResidents(tile)));
+        }
+        phase.sort(Comparator.comparingLong(Tile::getCost).reversed());
+    }
+
+    private long countResidents(Tile tile) {
+        long count = 0;
+        for (Cell cell : tile.getCells()) {
+            ResidentMap residents = cell.getResidents();
+            for (int id = 0; id < residents.size(); id++) {
+                count += residents.get(id).size();
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    @Override
+    public void setParallelism(int parallelism) {
+        if (parallelism != pool.getParallelism()) {
+            pool.shutdown();
+            pool = new ForkJoinPool(parallelism);
+            metrics = new TickMetrics(parallelism);
+        }
+    }
+
+    @Override
+    public String report() {
+        return metrics.report();
+    }
+
+    void processTile(Tile tile) {
+        long start = System.nanoTime();
+        try {
+            if (fused) {
+                forEachCell(tile, cellWorker::processCell);
+            } else {
+                for (OrganismWorker worker : cellWorker.getWorkers()) {
+                    forEachCell(tile, worker::processOneCell);
+                }
+            }
+        } catch (Exception e) {
+            throw new GameException("incorrect event in " + tile, e);
+        }
+        long nanos = System.nanoTime() - start;
+        tile.setCost(Math.max(1, nanos));
+        metrics.record(nanos);
+    }
+
+    private void forEachCell(Tile tile, Consumer<Cell> action) {
+        for (Cell cell : tile.getCells()) {
+            action.accept(cell);
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private class PhaseTask extends RecursiveAction {
+        private final List<Tile> tiles;
+
+        private PhaseTask(List<Tile> tiles) {
+            this.tiles = tiles;
+        }
+
+        @Override
+        protected void compute() {
+            invokeAll(tiles.stream()
+                    .filter(tile -> !tile.getCells().isEmpty())
+                    .map(TileTask::new)
+                    .toList());
+        }
+    }
+
+    private class TileTask extends RecursiveAction {
+        private final Tile tile;
+
+        private TileTask(Tile tile) {
+            this.tile = tile;
+        }
+
+        @Override
+        protected void compute() {
+            processTile(tile);
+        }
+    }
+}
@@ -1,21 +1,82 @@
 package com.javarush.island.khmelov.util;
 
+import java.util.SplittableRandom;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
+/**
+ * Random numbers of the game. Unseeded - {@link ThreadLocalRandom}, nothing shared.
+ * Seeded - every cell has its own stream split from the seed by cell index, and organisms draw
+ * from the stream of the cell being processed ({@link #run}), so a game does not depend on which
+ * thread handles a cell, only on the order of work inside each cell.
+ * Code outside cells (map creation, species order, mean-field steps) uses a stream of its thread
+ * started from the seed, so it must run in one thread.
+ */
 public class Rnd {
 
+    private static final long CELL_MIX = 0xBF58476D1CE4E5B9L;
+
+    //set before the map is created, 0 - unseeded
+    private static volatile long seed;
+
+    private static final ThreadLocal<RandomGenerator> STREAM =
+            ThreadLocal.withInitial(() -> new SplittableRandom(seed));
+
     private Rnd() {
     }
 
+    public static void seed(long seed) {
+        Rnd.seed = seed;
+        STREAM.remove();
+    }
+
+    public static boolean isSeeded() {
+        return seed != 0;
+    }
+
+    //stream of a cell, null when unseeded
+    public static RandomGenerator forCell(int index) {
+        long current = seed;
+        return current == 0 ? null : new SplittableRandom(current ^ (index + 1L) * CELL_MIX);
+    }
+
+    //body draws from the stream (a cell stream), null - no change
+    public static void run(RandomGenerator stream, Runnable body) {
+        if (stream == null) {
+            body.run();
+            return;
+        }
+        RandomGenerator previous = STREAM.get();
+        STREAM.set(stream);
+        try {
+            body.run();
+        } finally {
+            STREAM.set(previous);
+        }
+    }
+
+    private static RandomGenerator generator() {
+        return seed == 0 ? ThreadLocalRandom.current() : STREAM.get();
+    }
+
     public static int random(int min, int max) {
-        return ThreadLocalRandom.current().nextInt(min, max);
+        return generator().nextInt(min, max);
     }
 
     public static double random(double min, double max) {
-        return ThreadLocalRandom.current().nextDouble(min, max);
+        return generator().nextDouble(min, max);
     }
 
     public static boolean get(int percentProbably) {
         return random(0, 100) < percentProbably;
     }
+
+    //at least one success in several tries, drawn once
+    public static boolean get(int percentProbably, int tries) {
+        if (tries <= 1) {
+            return get(percentProbably);
+        }
+        double miss = Math.pow(1 - percentProbably / 100.0, tries);
+        return generator().nextDouble() >= miss;
+    }
 }
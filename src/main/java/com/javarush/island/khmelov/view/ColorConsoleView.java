@@ -2,6 +2,7 @@ package com.javarush.island.khmelov.view;
 
 import com.javarush.island.khmelov.api.view.View;
 import com.javarush.island.khmelov.config.Setting;
+import com.javarush.island.khmelov.entity.map.Aggregate;
 import com.javarush.island.khmelov.entity.map.Cell;
 import com.javarush.island.khmelov.entity.map.GameMap;
 import com.javarush.island.khmelov.entity.map.ResidentMap;
@@ -54,7 +55,6 @@ public class ColorConsoleView implements View {
             for (Cell cell : row) {
                 ResidentMap residents = cell.getResidents();
                 if (Objects.nonNull(residents)) {
-                    residents.randomRotateResidents();
                     residents.values().stream()
                             .filter(organisms -> !organisms.isEmpty())
                             .forEach(organisms -> {
@@ -64,6 +64,16 @@ public class ColorConsoleView implements View {
                                     }
                             );
                 }
+                Aggregate aggregate = cell.getAggregate();
+                if (Objects.nonNull(aggregate)) {
+                    for (int species = 0; species < aggregate.species(); species++) {
+                        if (aggregate.getCount(species) <= 0) {
+                            continue;
+                        }
+                        String icon = Setting.PROTOTYPES[species].getIcon();
+                        rawStatistics.merge(icon, aggregate.calculateSize(species), Double::sum);
+                    }
+                }
             }
         }
         rawStatistics.forEach((key, value) -> statistics.put(key, (long) Math.ceil(value)));
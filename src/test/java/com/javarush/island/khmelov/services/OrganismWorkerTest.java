@@ -0,0 +1,82 @@
+package com.javarush.island.khmelov.services;
+
+import com.javarush.island.khmelov.config.Setting;
+import com.javarush.island.khmelov.entity.map.Cell;
+import com.javarush.island.khmelov.entity.map.CellGuard;
+import com.javarush.island.khmelov.entity.map.GameMap;
+import com.javarush.island.khmelov.entity.organizm.Organism;
+import com.javarush.island.khmelov.repository.EntityCreator;
+import com.javarush.island.khmelov.repository.GameMapCreator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrganismWorkerTest {
+
+    private static final int TRIALS = 500;
+
+    @Test
+    void animalMovesAtMostOncePerTickInOneCellSweep() {
+        assertMovesOnce((worker, map) -> worker.run());
+    }
+
+    @Test
+    void animalMovesAtMostOncePerTickInMoveSweep() {
+        assertMovesOnce((worker, map) -> worker.sweep(worker::move));
+    }
+
+    //a lone animal in the top left corner: every move lands in a cell the sweep has not reached yet
+    private void assertMovesOnce(BiConsumer<OrganismWorker, GameMap> sweep) {
+        Organism prototype = Arrays.stream(Setting.PROTOTYPES)
+                .filter(organism -> organism.getType().equals("Deer"))
+                .findFirst()
+                .orElseThrow();
+        int maxMoves = 0;
+        for (int trial = 0; trial < TRIALS; trial++) {
+            GameMap gameMap = new GameMapCreator(new EntityCreator()).createRandomFilledGameMap(10, 10, true);
+            MoveCounter counter = new MoveCounter();
+            gameMap.setGuard(counter);
+            gameMap.getCells()[0][0].getResidents().get(prototype.getSpeciesId()).add(Organism.clone(prototype));
+            OrganismWorker worker = new OrganismWorker(prototype, gameMap);
+            worker.beginTick();
+            sweep.accept(worker, gameMap);
+            maxMoves = Math.max(maxMoves, counter.moves);
+        }
+        assertTrue(maxMoves <= 1, "moves in one tick: " + maxMoves);
+    }
+
+    //single-threaded guard that counts committed moves (changes of two cells)
+    private static class MoveCounter implements CellGuard {
+        private int moves;
+
+        @Override
+        public boolean execute(Cell cell, Supplier<Commit> plan) {
+            Commit commit = plan.get();
+            return commit != null && commit.apply();
+        }
+
+        @Override
+        public boolean execute(Cell first, Cell second, Supplier<Commit> plan) {
+            Commit commit = plan.get();
+            if (commit == null) {
+                return false;
+            }
+            moves++;
+            return commit.apply();
+        }
+
+        @Override
+        public <T> T read(Cell cell, Supplier<T> reader) {
+            return reader.get();
+        }
+
+        @Override
+        public String report() {
+            return "moves: " + moves;
+        }
+    }
+}